@@ -0,0 +1,442 @@
+package edu.kit.informatik.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The nodes of a <a href="https://en.wikipedia.org/wiki/Hash_array_mapped_trie">hash array mapped trie</a>,
+ * the structure behind {@link PersistentMap} and {@link PersistentSet}.
+ * <p>
+ * Every level of the trie consumes 5 bits of a key's hash. A node only allocates slots for the branches that
+ * are actually in use and stores them in an array indexed by the population count of a bitmap.
+ * Each slot is a pair of array elements: either a key and its value or {@code null} and a sub node.
+ * Keys with the same hash share a collision node.
+ * <p>
+ * Updates and removals copy the path from the root to the changed node and share everything else.
+ * Updates passing an {@code edit} token may modify nodes created with the same token in place; this is used to
+ * build a new trie from many entries without copying the path for each of them. A new trie can also be built
+ * from all of its entries at once by a {@link TrieBuilder}, which allocates every node exactly once.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+final class HashTrie {
+
+    /**
+     * The result of a lookup that did not find the key.
+     */
+    static final Object NOT_FOUND = new Object();
+
+    /**
+     * The trie without any entries.
+     */
+    static final Node EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+    /**
+     * The number of hash bits consumed by every level of the trie.
+     */
+    static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_DEPTH = Integer.SIZE / BITS + 2;
+
+    private HashTrie() {
+
+    }
+
+    /**
+     * Computes the hash of a key used to place it in the trie.
+     *
+     * @param key The key. Must not be {@code null}.
+     * @return The spread hash code of the key.
+     */
+    static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Creates a node from the slots of all branches in use.
+     *
+     * @param bitmap The bits of the branches in use.
+     * @param array  The slots of those branches in the order of their bits.
+     * @return The node.
+     */
+    static Node node(int bitmap, Object[] array) {
+        return new BitmapNode(null, bitmap, array);
+    }
+
+    /**
+     * Creates a node for distinct keys with the same hash.
+     *
+     * @param hash  The hash of all keys.
+     * @param array The keys and their values, alternating. Must hold at least two keys.
+     * @return The node.
+     */
+    static Node collision(int hash, Object[] array) {
+        return new CollisionNode(hash, array);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Node split(Object edit, int shift, Object firstKey, Object firstValue,
+                              int hash, Object key, Object value) {
+        int firstHash = hash(firstKey);
+        if (firstHash == hash) {
+            return new CollisionNode(hash, new Object[] {firstKey, firstValue, key, value});
+        }
+        boolean[] ignored = new boolean[1];
+        return new BitmapNode(edit, 0, new Object[0])
+                .put(edit, shift, firstHash, firstKey, firstValue, ignored)
+                .put(edit, shift, hash, key, value, ignored);
+    }
+
+    /**
+     * A node of the trie.
+     */
+    abstract static class Node {
+
+        /**
+         * Looks up the value of a key.
+         *
+         * @param shift The number of hash bits consumed by the levels above this node.
+         * @param hash  The hash of the key.
+         * @param key   The key.
+         * @return The value or {@link #NOT_FOUND}.
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * Associates a key with a value.
+         *
+         * @param edit  The token of the current bulk update or {@code null}.
+         * @param shift The number of hash bits consumed by the levels above this node.
+         * @param hash  The hash of the key.
+         * @param key   The key.
+         * @param value The value.
+         * @param added Set to {@code true} at index 0 if the key was not present before.
+         * @return The updated node; this node if nothing has changed or the node was modified in place.
+         */
+        abstract Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * Removes a key and its value.
+         *
+         * @param shift The number of hash bits consumed by the levels above this node.
+         * @param hash  The hash of the key.
+         * @param key   The key.
+         * @return The updated node, this node if the key is not present or {@code null} if the node is now empty.
+         */
+        abstract Node remove(int shift, int hash, Object key);
+
+        /**
+         * Returns the number of slots of this node.
+         *
+         * @return The slot count.
+         */
+        abstract int slots();
+
+        /**
+         * Returns the key in a slot, {@code null} if the slot holds a sub node.
+         *
+         * @param slot The slot.
+         * @return The key.
+         */
+        abstract Object keyAt(int slot);
+
+        /**
+         * Returns the value or sub node in a slot.
+         *
+         * @param slot The slot.
+         * @return The value or sub node.
+         */
+        abstract Object valueAt(int slot);
+    }
+
+    private static final class BitmapNode extends Node {
+
+        private final Object edit;
+        private int bitmap;
+        private Object[] array;
+
+        private BitmapNode(Object edit, int bitmap, Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object slotKey = array[index];
+            if (slotKey == null) {
+                return ((Node) array[index + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(slotKey) ? array[index + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] grown = new Object[array.length + 2];
+                System.arraycopy(array, 0, grown, 0, index);
+                grown[index] = key;
+                grown[index + 1] = value;
+                System.arraycopy(array, index, grown, index + 2, array.length - index);
+                if (isEditable(edit)) {
+                    this.array = grown;
+                    this.bitmap |= bit;
+                    return this;
+                }
+                return new BitmapNode(edit, bitmap | bit, grown);
+            }
+            Object slotKey = array[index];
+            Object slotValue = array[index + 1];
+            if (slotKey == null) {
+                Node sub = ((Node) slotValue).put(edit, shift + BITS, hash, key, value, added);
+                return sub == slotValue ? this : set(edit, index, null, sub);
+            }
+            if (key.equals(slotKey)) {
+                return slotValue == value ? this : set(edit, index, slotKey, value);
+            }
+            added[0] = true;
+            return set(edit, index, null, split(edit, shift + BITS, slotKey, slotValue, hash, key, value));
+        }
+
+        private Node set(Object edit, int index, Object key, Object value) {
+            Object[] target = isEditable(edit) ? array : array.clone();
+            target[index] = key;
+            target[index + 1] = value;
+            return target == array ? this : new BitmapNode(edit, bitmap, target);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object slotKey = array[index];
+            if (slotKey == null) {
+                Node sub = (Node) array[index + 1];
+                Node updated = sub.remove(shift + BITS, hash, key);
+                if (updated == sub) {
+                    return this;
+                }
+                if (updated == null) {
+                    return without(bit, index);
+                }
+                // pull single entries up so that the trie stays as shallow as possible
+                return updated.slots() == 1 && updated.keyAt(0) != null
+                        ? set(null, index, updated.keyAt(0), updated.valueAt(0))
+                        : set(null, index, null, updated);
+            }
+            return key.equals(slotKey) ? without(bit, index) : this;
+        }
+
+        private Node without(int bit, int index) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, index);
+            System.arraycopy(array, index + 2, shrunk, index, shrunk.length - index);
+            return new BitmapNode(null, bitmap & ~bit, shrunk);
+        }
+
+        private boolean isEditable(Object edit) {
+            return edit != null && edit == this.edit;
+        }
+
+        @Override
+        int slots() {
+            return array.length / 2;
+        }
+
+        @Override
+        Object keyAt(int slot) {
+            return array[2 * slot];
+        }
+
+        @Override
+        Object valueAt(int slot) {
+            return array[2 * slot + 1];
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        private CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int index = indexOf(key);
+            return hash == this.hash && index >= 0 ? array[index + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(edit, bit(this.hash, shift), new Object[] {null, this})
+                        .put(edit, shift, hash, key, value, added);
+            }
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) {
+                    return this;
+                }
+                Object[] replaced = array.clone();
+                replaced[index + 1] = value;
+                return new CollisionNode(hash, replaced);
+            }
+            added[0] = true;
+            Object[] grown = Arrays.copyOf(array, array.length + 2);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            return new CollisionNode(hash, grown);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int index = hash == this.hash ? indexOf(key) : -1;
+            if (index < 0) {
+                return this;
+            }
+            if (array.length == 4) {
+                int remaining = 2 - index;
+                return new BitmapNode(null, bit(hash, shift), new Object[] {array[remaining], array[remaining + 1]});
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, index);
+            System.arraycopy(array, index + 2, shrunk, index, shrunk.length - index);
+            return new CollisionNode(hash, shrunk);
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int slots() {
+            return array.length / 2;
+        }
+
+        @Override
+        Object keyAt(int slot) {
+            return array[2 * slot];
+        }
+
+        @Override
+        Object valueAt(int slot) {
+            return array[2 * slot + 1];
+        }
+    }
+
+    /**
+     * A depth-first cursor over the entries of a trie.
+     */
+    static final class Cursor {
+
+        private final Node[] nodes;
+        private final int[] slots;
+        private int depth;
+        private Object key;
+        private Object value;
+
+        /**
+         * Creates a cursor positioned before the first entry of a trie.
+         *
+         * @param root The root of the trie.
+         */
+        Cursor(Node root) {
+            this.nodes = new Node[MAX_DEPTH];
+            this.slots = new int[MAX_DEPTH];
+            this.nodes[0] = root;
+            this.depth = 0;
+            findNext();
+        }
+
+        private void findNext() {
+            key = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                int slot = slots[depth];
+                if (slot == node.slots()) {
+                    depth--;
+                    continue;
+                }
+                slots[depth]++;
+                Object slotKey = node.keyAt(slot);
+                if (slotKey == null) {
+                    depth++;
+                    nodes[depth] = (Node) node.valueAt(slot);
+                    slots[depth] = 0;
+                } else {
+                    key = slotKey;
+                    value = node.valueAt(slot);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns whether there is another entry.
+         *
+         * @return {@code true} if {@link #next()} can be called.
+         */
+        boolean hasNext() {
+            return key != null;
+        }
+
+        /**
+         * Moves to the next entry.
+         *
+         * @throws NoSuchElementException if there is no next entry.
+         */
+        void next() {
+            if (key == null) {
+                throw new NoSuchElementException();
+            }
+            findNext();
+        }
+
+        /**
+         * Returns the key of the next entry.
+         *
+         * @return The key.
+         */
+        Object key() {
+            return key;
+        }
+
+        /**
+         * Returns the value of the next entry.
+         *
+         * @return The value.
+         */
+        Object value() {
+            return value;
+        }
+    }
+}
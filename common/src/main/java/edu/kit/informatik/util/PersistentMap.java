@@ -0,0 +1,241 @@
+package edu.kit.informatik.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable map that is updated by creating new versions of it which share all unchanged structure with the
+ * previous version.
+ * <p>
+ * The entries are stored in a {@link HashTrie hash array mapped trie}, so {@link #plus(Object, Object) adding} or
+ * {@link #minus(Object) removing} an entry costs {@code O(log n)} time and memory instead of copying the whole map.
+ * Lookups are {@code O(log n)} as well, with a base of 32. The map does not permit {@code null} keys or values
+ * and the order of iteration is unspecified.
+ * <p>
+ * All methods inherited from {@link Map} that would modify the map throw an {@link UnsupportedOperationException}.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see PersistentSet
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(HashTrie.EMPTY, 0);
+
+    private final HashTrie.Node root;
+    private final int size;
+
+    private PersistentMap(HashTrie.Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> The key type.
+     * @param <V> The value type.
+     * @return The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent map containing the entries of the given map.
+     * <p>
+     * The map is {@link TrieBuilder built} from all entries at once.
+     *
+     * @param map The map to copy. If it is a persistent map itself, it is returned as is.
+     * @param <K> The key type.
+     * @param <V> The value type.
+     * @return The persistent map.
+     * @throws NullPointerException     if the map is {@code null}.
+     * @throws IllegalArgumentException if the map contains {@code null} keys or values.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        Checks.notNull(map, "Map");
+        if (map instanceof PersistentMap) {
+            return (PersistentMap<K, V>) map;
+        }
+        Object[] keys = new Object[map.size()];
+        Object[] values = new Object[keys.length];
+        int index = 0;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            Checks.argument(entry.getKey() != null && entry.getValue() != null, "Map entries must not be null");
+            keys[index] = entry.getKey();
+            values[index] = entry.getValue();
+            index++;
+        }
+        int[] size = new int[1];
+        HashTrie.Node root = TrieBuilder.build(keys, values, size);
+        return size[0] == 0 ? empty() : new PersistentMap<>(root, size[0]);
+    }
+
+    /**
+     * Returns a persistent map that associates every key with the value at the same position.
+     * <p>
+     * Like {@link #copyOf(Map)}, the map is built from all entries at once, but without an intermediate map.
+     * If a key occurs several times, it is associated with the value of its last occurrence.
+     *
+     * @param keys   The keys.
+     * @param values The values.
+     * @param <K>    The key type.
+     * @param <V>    The value type.
+     * @return The persistent map.
+     * @throws NullPointerException     if one of the lists is {@code null}.
+     * @throws IllegalArgumentException if the lists differ in size or contain {@code null}.
+     */
+    public static <K, V> PersistentMap<K, V> copyOf(List<? extends K> keys, List<? extends V> values) {
+        Checks.notNull(keys, "Keys");
+        Checks.notNull(values, "Values");
+        Checks.argument(keys.size() == values.size(), "Keys and values differ in size");
+        Object[] keyArray = keys.toArray();
+        Object[] valueArray = values.toArray();
+        for (int i = 0; i < keyArray.length; i++) {
+            Checks.argument(keyArray[i] != null && valueArray[i] != null, "Map entries must not be null");
+        }
+        int[] size = new int[1];
+        HashTrie.Node root = TrieBuilder.build(keyArray, valueArray, size);
+        return size[0] == 0 ? empty() : new PersistentMap<>(root, size[0]);
+    }
+
+    /**
+     * Returns a map with the entries of this map and the given entry. An existing entry with the same key
+     * is replaced.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The new map or this map if it already contains the entry.
+     * @throws IllegalArgumentException if the key or value is {@code null}.
+     */
+    public PersistentMap<K, V> plus(K key, V value) {
+        Checks.argument(key != null && value != null, "Map entries must not be null");
+        boolean[] added = new boolean[1];
+        HashTrie.Node updated = root.put(null, 0, HashTrie.hash(key), key, value, added);
+        return updated == root ? this : new PersistentMap<>(updated, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map with the entries of this map and the entries of the given map. Existing entries with the same
+     * key are replaced.
+     * <p>
+     * The entries are added in a single bulk update, so nodes that are created during the update are
+     * only allocated once.
+     *
+     * @param map The entries to add.
+     * @return The new map or this map if it already contains all entries.
+     * @throws NullPointerException     if the map is {@code null}.
+     * @throws IllegalArgumentException if the map contains {@code null} keys or values.
+     */
+    public PersistentMap<K, V> plusAll(Map<? extends K, ? extends V> map) {
+        Checks.notNull(map, "Map");
+        Object edit = new Object();
+        boolean[] added = new boolean[1];
+        HashTrie.Node updated = root;
+        int newSize = size;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            K key = entry.getKey();
+            V value = entry.getValue();
+            Checks.argument(key != null && value != null, "Map entries must not be null");
+            added[0] = false;
+            updated = updated.put(edit, 0, HashTrie.hash(key), key, value, added);
+            newSize += added[0] ? 1 : 0;
+        }
+        return updated == root ? this : new PersistentMap<>(updated, newSize);
+    }
+
+    /**
+     * Returns a map with the entries of this map except the entry of the given key.
+     *
+     * @param key The key to remove.
+     * @return The new map or this map if it does not contain the key.
+     */
+    public PersistentMap<K, V> minus(Object key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        HashTrie.Node updated = root.remove(0, HashTrie.hash(key), key);
+        return new PersistentMap<>(updated == null ? HashTrie.EMPTY : updated, size - 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        Object value = root.find(0, HashTrie.hash(key), key);
+        return value == HashTrie.NOT_FOUND ? null : (V) value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && root.find(0, HashTrie.hash(key), key) != HashTrie.NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the keys of this map as a persistent set.
+     * <p>
+     * The set shares the trie of this map, so this takes constant time.
+     *
+     * @return The set of keys.
+     */
+    @Override
+    public PersistentSet<K> keySet() {
+        return PersistentSet.ofTrie(root, size);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                HashTrie.Cursor cursor = new HashTrie.Cursor(root);
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return cursor.hasNext();
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<K, V> next() {
+                        K key = (K) cursor.key();
+                        V value = (V) cursor.value();
+                        cursor.next();
+                        return new SimpleImmutableEntry<>(key, value);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Entry)) {
+                    return false;
+                }
+                Entry<?, ?> entry = (Entry<?, ?>) o;
+                V value = get(entry.getKey());
+                return value != null && value.equals(entry.getValue());
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,169 @@
+package edu.kit.informatik.util;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * An immutable set that is updated by creating new versions of it which share all unchanged structure with the
+ * previous version.
+ * <p>
+ * The elements are stored in a {@link HashTrie hash array mapped trie}, so {@link #plus(Object) adding} or
+ * {@link #minus(Object) removing} an element costs {@code O(log n)} time and memory instead of copying the whole set.
+ * The set does not permit {@code null} elements and the order of iteration is unspecified.
+ * <p>
+ * All methods inherited from {@link Set} that would modify the set throw an {@link UnsupportedOperationException}.
+ *
+ * @param <E> The element type.
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see PersistentMap
+ */
+public final class PersistentSet<E> extends AbstractSet<E> {
+
+    private static final PersistentSet<?> EMPTY = new PersistentSet<>(HashTrie.EMPTY, 0);
+
+    private final HashTrie.Node root;
+    private final int size;
+
+    private PersistentSet(HashTrie.Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty set.
+     *
+     * @param <E> The element type.
+     * @return The empty set.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentSet<E> empty() {
+        return (PersistentSet<E>) EMPTY;
+    }
+
+    /**
+     * Returns the set of the keys of a trie.
+     *
+     * @param root The root of the trie. Its values are ignored.
+     * @param size The number of keys in the trie.
+     * @param <E>  The element type.
+     * @return The set.
+     */
+    static <E> PersistentSet<E> ofTrie(HashTrie.Node root, int size) {
+        return size == 0 ? empty() : new PersistentSet<>(root, size);
+    }
+
+    /**
+     * Returns a persistent set containing the elements of the given collection.
+     * <p>
+     * The set is {@link TrieBuilder built} from all elements at once.
+     *
+     * @param elements The elements. If this is a persistent set itself, it is returned as is.
+     * @param <E>      The element type.
+     * @return The persistent set.
+     * @throws NullPointerException     if the collection is {@code null}.
+     * @throws IllegalArgumentException if the collection contains {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentSet<E> copyOf(Collection<? extends E> elements) {
+        Checks.notNull(elements, "Collection");
+        if (elements instanceof PersistentSet) {
+            return (PersistentSet<E>) elements;
+        }
+        Object[] keys = elements.toArray();
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Checks.argument(keys[i] != null, "Set elements must not be null");
+            values[i] = Boolean.TRUE;
+        }
+        int[] size = new int[1];
+        HashTrie.Node root = TrieBuilder.build(keys, values, size);
+        return size[0] == 0 ? empty() : new PersistentSet<>(root, size[0]);
+    }
+
+    /**
+     * Returns a set with the elements of this set and the given element.
+     *
+     * @param element The element to add.
+     * @return The new set or this set if it already contains the element.
+     * @throws IllegalArgumentException if the element is {@code null}.
+     */
+    public PersistentSet<E> plus(E element) {
+        Checks.argument(element != null, "Set elements must not be null");
+        boolean[] added = new boolean[1];
+        HashTrie.Node updated = root.put(null, 0, HashTrie.hash(element), element, Boolean.TRUE, added);
+        // the trie may be shared with a map, whose values are replaced even if the element is already present
+        return added[0] ? new PersistentSet<>(updated, size + 1) : this;
+    }
+
+    /**
+     * Returns a set with the elements of this set and the elements of the given collection.
+     * <p>
+     * The elements are added in a single bulk update, so nodes that are created during the update are
+     * only allocated once.
+     *
+     * @param elements The elements to add.
+     * @return The new set or this set if it already contains all elements.
+     * @throws NullPointerException     if the collection is {@code null}.
+     * @throws IllegalArgumentException if the collection contains {@code null}.
+     */
+    public PersistentSet<E> plusAll(Collection<? extends E> elements) {
+        Checks.notNull(elements, "Collection");
+        Object edit = new Object();
+        boolean[] added = new boolean[1];
+        HashTrie.Node updated = root;
+        int newSize = size;
+        for (E element : elements) {
+            Checks.argument(element != null, "Set elements must not be null");
+            added[0] = false;
+            updated = updated.put(edit, 0, HashTrie.hash(element), element, Boolean.TRUE, added);
+            newSize += added[0] ? 1 : 0;
+        }
+        return newSize == size ? this : new PersistentSet<>(updated, newSize);
+    }
+
+    /**
+     * Returns a set with the elements of this set except the given element.
+     *
+     * @param element The element to remove.
+     * @return The new set or this set if it does not contain the element.
+     */
+    public PersistentSet<E> minus(Object element) {
+        if (!contains(element)) {
+            return this;
+        }
+        HashTrie.Node updated = root.remove(0, HashTrie.hash(element), element);
+        return new PersistentSet<>(updated == null ? HashTrie.EMPTY : updated, size - 1);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o != null && root.find(0, HashTrie.hash(o), o) != HashTrie.NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        HashTrie.Cursor cursor = new HashTrie.Cursor(root);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                E element = (E) cursor.key();
+                cursor.next();
+                return element;
+            }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package edu.kit.informatik.util;
+
+import java.util.Arrays;
+
+/**
+ * Builds a {@link HashTrie hash array mapped trie} from all of its entries at once.
+ * <p>
+ * Instead of being inserted one by one, the entries are partitioned by the bits of their hashes level by level,
+ * like in a radix sort. Every node is therefore allocated exactly once with its final size and no path is copied.
+ * If a key occurs several times, the value of its last occurrence is kept. Tries with few entries are built by
+ * inserting the entries one by one.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see PersistentSet#copyOf(java.util.Collection)
+ * @see PersistentMap#copyOf(java.util.Map)
+ */
+final class TrieBuilder {
+
+    private static final int BRANCHES = 1 << HashTrie.BITS;
+
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] order;
+    private final int[] hashes;
+    private final int[] scratchOrder;
+    private final int[] scratchHashes;
+    private int size;
+
+    private TrieBuilder(Object[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.order = new int[keys.length];
+        this.hashes = new int[keys.length];
+        this.scratchOrder = new int[keys.length];
+        this.scratchHashes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = HashTrie.hash(keys[i]);
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Builds a trie from the given entries.
+     *
+     * @param keys   The keys. Must not contain {@code null}.
+     * @param values The values at the same positions as their keys.
+     * @param size   Set to the number of distinct keys at index 0.
+     * @return The root of the trie.
+     */
+    static HashTrie.Node build(Object[] keys, Object[] values, int[] size) {
+        if (keys.length <= BRANCHES) {
+            // few entries mostly fit into a single node, which is faster to fill in place than to partition into
+            Object edit = new Object();
+            boolean[] added = new boolean[1];
+            HashTrie.Node root = HashTrie.EMPTY;
+            size[0] = 0;
+            for (int i = 0; i < keys.length; i++) {
+                added[0] = false;
+                root = root.put(edit, 0, HashTrie.hash(keys[i]), keys[i], values[i], added);
+                size[0] += added[0] ? 1 : 0;
+            }
+            return root;
+        }
+        TrieBuilder builder = new TrieBuilder(keys, values);
+        HashTrie.Node root = builder.build(0, keys.length, 0);
+        size[0] = builder.size;
+        return root;
+    }
+
+    private HashTrie.Node build(int from, int to, int shift) {
+        int[] starts = new int[BRANCHES + 1];
+        for (int i = from; i < to; i++) {
+            starts[branch(i, shift) + 1]++;
+        }
+        int bitmap = 0;
+        for (int branch = 0; branch < BRANCHES; branch++) {
+            bitmap |= starts[branch + 1] > 0 ? 1 << branch : 0;
+            starts[branch + 1] += starts[branch];
+        }
+        // a stable partition keeps later occurrences of a key behind earlier ones;
+        // the hashes are moved along with the entries so that they are read sequentially
+        int[] next = starts.clone();
+        for (int i = from; i < to; i++) {
+            int target = from + next[branch(i, shift)]++;
+            scratchOrder[target] = order[i];
+            scratchHashes[target] = hashes[i];
+        }
+        System.arraycopy(scratchOrder, from, order, from, to - from);
+        System.arraycopy(scratchHashes, from, hashes, from, to - from);
+
+        Object[] array = new Object[2 * Integer.bitCount(bitmap)];
+        int slot = 0;
+        for (int branch = 0; branch < BRANCHES; branch++) {
+            int start = from + starts[branch];
+            int end = from + starts[branch + 1];
+            if (start == end) {
+                continue;
+            }
+            if (!sameHash(start, end)) {
+                array[slot + 1] = build(start, end, shift + HashTrie.BITS);
+            } else {
+                Object[] entries = distinct(start, end);
+                size += entries.length / 2;
+                array[slot] = entries.length == 2 ? entries[0] : null;
+                array[slot + 1] = entries.length == 2 ? entries[1] : HashTrie.collision(hashes[start], entries);
+            }
+            slot += 2;
+        }
+        return HashTrie.node(bitmap, array);
+    }
+
+    private int branch(int position, int shift) {
+        return (hashes[position] >>> shift) & (BRANCHES - 1);
+    }
+
+    private boolean sameHash(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (hashes[i] != hashes[from]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object[] distinct(int from, int to) {
+        Object[] entries = new Object[2 * (to - from)];
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            Object key = keys[order[i]];
+            int index = 0;
+            while (index < length && !key.equals(entries[index])) {
+                index += 2;
+            }
+            entries[index] = key;
+            entries[index + 1] = values[order[i]];
+            length = Math.max(length, index + 2);
+        }
+        return length == entries.length ? entries : Arrays.copyOf(entries, length);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.kit.informatik.escapenetworks.network;
+
+/**
+ * A {@link MaxFlowSolver} that picks one of the built-in {@link FlowAlgorithm algorithms}
+ * based on the {@link NetworkStatistics statistics} of each network it is used on.
+ * <p>
+ * The heuristic is:
+ * <ul>
+ *     <li>Small networks are solved with {@link FlowAlgorithm#EDMONDS_KARP Edmonds-Karp},
+ *         which has the least setup overhead.</li>
+ *     <li>Dense networks and networks with a wide range of capacities are solved with
+ *         {@link FlowAlgorithm#PUSH_RELABEL push-relabel}, whose running time does not depend
+ *         on the number of augmenting paths.</li>
+ *     <li>Everything else, in particular sparse layered networks, is solved with {@link FlowAlgorithm#DINIC Dinic}.
+ *     </li>
+ * </ul>
+ * <p>
+ * This class is immutable.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public final class AutomaticSolver implements MaxFlowSolver {
+
+    /**
+     * The name of the automatic solver.
+     */
+    public static final String NAME = "auto";
+
+    private static final int SMALL_NETWORK_EDGES = 64;
+    private static final double DENSE_NETWORK_DENSITY = 0.05;
+    private static final double WIDE_CAPACITY_RANGE = 1 << 16;
+
+    /**
+     * Selects the algorithm to use for a network with the given statistics.
+     *
+     * @param statistics The statistics of the network.
+     * @return The algorithm that is expected to perform best.
+     */
+    public FlowAlgorithm select(NetworkStatistics statistics) {
+        if (statistics.getEdgeCount() <= SMALL_NETWORK_EDGES) {
+            return FlowAlgorithm.EDMONDS_KARP;
+        } else if (statistics.getDensity() >= DENSE_NETWORK_DENSITY
+                || statistics.getCapacityRange() >= WIDE_CAPACITY_RANGE) {
+            return FlowAlgorithm.PUSH_RELABEL;
+        } else {
+            return FlowAlgorithm.DINIC;
+        }
+    }
+
+    /**
+     * Selects the algorithm to use for the given network.
+     *
+     * @param network The network.
+     * @return The algorithm that is expected to perform best.
+     * @see #select(NetworkStatistics)
+     */
+    public FlowAlgorithm select(Network network) {
+        return select(NetworkStatistics.of(network));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public long computeMaxFlow(Network network, Vertex source, Vertex sink) {
+        return select(network).computeMaxFlow(network, source, sink);
+    }
+}
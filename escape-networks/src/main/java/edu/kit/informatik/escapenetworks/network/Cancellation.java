@@ -0,0 +1,31 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation of flow computations.
+ * <p>
+ * The algorithms call {@link #check()} once per augmentation, phase or discharge, so a computation that runs
+ * on a worker thread stops soon after that thread is interrupted. The interrupt flag is left set.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see Flow
+ */
+final class Cancellation {
+
+    private Cancellation() {
+
+    }
+
+    /**
+     * Aborts the current computation if the current thread has been interrupted.
+     *
+     * @throws CancellationException if the current thread has been interrupted.
+     */
+    static void check() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Flow computation was cancelled");
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import edu.kit.informatik.util.Checks;
+
+import java.util.Arrays;
+
+/**
+ * A compact, index based representation of a {@link Network} used internally to compute flows.
+ * <p>
+ * Vertices are numbered from {@code 0} to {@code n - 1}. If all vertices (except for the virtual terminals added by
+ * {@link #withTerminals(int[], int[])}) have been interned in a {@link VertexTable}, the number of a vertex is looked
+ * up by its {@link Vertex#getId() id} in an array instead of a hash map (see {@link VertexIndex}).
+ * The arcs of the network are stored in
+ * <a href="https://en.wikipedia.org/wiki/Sparse_matrix#Compressed_sparse_row_(CSR,_CRS_or_Yale_format)">
+ * compressed sparse row</a> form: the arcs leaving vertex {@code v} are the indices
+ * {@code firstArc(v)} (inclusive) to {@code endArc(v)} (exclusive).
+ * Every edge of the network is represented by a forward arc with the capacity of the edge and
+ * a paired residual arc in the opposite direction with capacity {@code 0}. In a {@link NetworkReduction reduced}
+ * network, the edge of a forward arc connects the ends of the {@link Route route} the arc stands for.
+ * <p>
+ * This class is immutable.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+final class CompiledNetwork {
+
+    /**
+     * The virtual vertex that is connected to all sources by {@link #withTerminals(int[], int[])}.
+     */
+    static final Vertex SUPER_SOURCE = Vertex.create("<sources>");
+
+    /**
+     * The virtual vertex that all sinks are connected to by {@link #withTerminals(int[], int[])}.
+     */
+    static final Vertex SUPER_SINK = Vertex.create("<sinks>");
+
+    private static final double PRUNE_RATIO = 0.75;
+
+    private final Vertex[] vertices;
+    private final VertexIndex index;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] capacities;
+    private final int[] reverseArcs;
+    private final Edge[] edges;
+    private final Route[] routes;
+
+    private CompiledNetwork(Vertex[] vertices, VertexIndex index, Arcs arcs, Edge[] edges, Route[] routes) {
+        this.vertices = vertices;
+        this.index = index;
+        this.offsets = arcs.offsets;
+        this.targets = arcs.targets;
+        this.capacities = arcs.capacities;
+        this.reverseArcs = arcs.reverseArcs;
+        this.edges = edges;
+        this.routes = routes;
+    }
+
+    /**
+     * Compiles the given network into its compact representation.
+     *
+     * @param network The network to compile. Must not be {@code null}.
+     * @return The compiled network.
+     * @throws NullPointerException if the network is {@code null}.
+     */
+    static CompiledNetwork compile(Network network) {
+        Checks.notNull(network, "Network");
+        Graph graph = network.getGraph();
+        Edge[] edges = graph.getEdges().toArray(new Edge[0]);
+        int[] capacities = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            capacities[i] = network.getCapacity(edges[i]);
+        }
+        return build(graph.getVertices().toArray(new Vertex[0]), edges, capacities, edges.length, null);
+    }
+
+    /**
+     * Creates a reduced network in which every forward arc stands for a route of the original network.
+     *
+     * @param vertices The vertices of the reduced network.
+     * @param routes   The routes between the vertices.
+     * @return The compiled network.
+     * @see NetworkReduction
+     */
+    static CompiledNetwork reduced(Vertex[] vertices, Route[] routes) {
+        Edge[] edges = new Edge[routes.length];
+        int[] capacities = new int[routes.length];
+        for (int i = 0; i < routes.length; i++) {
+            edges[i] = Edge.create(routes[i].getFrom(), routes[i].getTo());
+            capacities[i] = routes[i].getCapacity();
+        }
+        return build(vertices, edges, capacities, routes.length, routes);
+    }
+
+    /**
+     * Connects several sources and sinks of this network to a single virtual source and sink.
+     * <p>
+     * The {@link #SUPER_SOURCE super source} is connected to every source by arcs whose capacities add up to the
+     * capacity of the edges leaving that source; likewise, every sink is connected to the {@link #SUPER_SINK super
+     * sink} by arcs with the capacity of the edges entering it. Because a single arc may not be able to hold the
+     * capacity of all edges of a vertex, it is split into several parallel arcs if necessary.
+     * A maximum flow from the super source to the super sink is then a maximum flow from all sources to all sinks.
+     * A side with just one vertex is not connected to a virtual vertex.
+     *
+     * @param sources The indices of the sources.
+     * @param sinks   The indices of the sinks.
+     * @return A new compiled network containing the virtual vertices in addition to the vertices of this network.
+     */
+    CompiledNetwork withTerminals(int[] sources, int[] sinks) {
+        boolean superSource = sources.length > 1;
+        boolean superSink = sinks.length > 1;
+        long[] sourceCapacities = new long[sources.length];
+        long[] sinkCapacities = new long[sinks.length];
+        int virtualEdges = 0;
+        for (int i = 0; superSource && i < sources.length; i++) {
+            sourceCapacities[i] = totalCapacity(sources[i], true);
+            virtualEdges += (int) ((sourceCapacities[i] + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+        }
+        for (int i = 0; superSink && i < sinks.length; i++) {
+            sinkCapacities[i] = totalCapacity(sinks[i], false);
+            virtualEdges += (int) ((sinkCapacities[i] + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+        }
+        Vertex[] allVertices = Arrays.copyOf(vertices, vertices.length + (superSource ? 1 : 0) + (superSink ? 1 : 0));
+        if (superSource) {
+            allVertices[vertices.length] = SUPER_SOURCE;
+        }
+        if (superSink) {
+            allVertices[allVertices.length - 1] = SUPER_SINK;
+        }
+        Edge[] allEdges = new Edge[targets.length / 2 + virtualEdges];
+        int[] allCapacities = new int[allEdges.length];
+        int edgeCount = 0;
+        for (int arc = 0; arc < targets.length; arc++) {
+            if (edges[arc] != null) {
+                allEdges[edgeCount] = edges[arc];
+                allCapacities[edgeCount++] = capacities[arc];
+            }
+        }
+        for (int i = 0; superSource && i < sources.length; i++) {
+            Edge edge = Edge.create(SUPER_SOURCE, vertices[sources[i]]);
+            for (long remaining = sourceCapacities[i]; remaining > 0; remaining -= Integer.MAX_VALUE) {
+                allEdges[edgeCount] = edge;
+                allCapacities[edgeCount++] = (int) Math.min(remaining, Integer.MAX_VALUE);
+            }
+        }
+        for (int i = 0; superSink && i < sinks.length; i++) {
+            Edge edge = Edge.create(vertices[sinks[i]], SUPER_SINK);
+            for (long remaining = sinkCapacities[i]; remaining > 0; remaining -= Integer.MAX_VALUE) {
+                allEdges[edgeCount] = edge;
+                allCapacities[edgeCount++] = (int) Math.min(remaining, Integer.MAX_VALUE);
+            }
+        }
+        return build(allVertices, allEdges, allCapacities, edgeCount, null);
+    }
+
+    private long totalCapacity(int vertex, boolean outgoing) {
+        long total = 0;
+        for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+            // the capacity of an incoming edge is stored in the reverse arc of the residual arc
+            total += outgoing
+                    ? (edges[arc] != null ? capacities[arc] : 0)
+                    : (edges[arc] == null ? capacities[reverseArcs[arc]] : 0);
+        }
+        return total;
+    }
+
+    private static CompiledNetwork build(Vertex[] vertices, Edge[] edges, int[] edgeCapacities, int edgeCount,
+                                         Route[] edgeRoutes) {
+        int vertexCount = vertices.length;
+        VertexIndex index = VertexIndex.of(vertices);
+
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            from[i] = index.indexOf(edges[i].getFrom());
+            to[i] = index.indexOf(edges[i].getTo());
+            offsets[from[i] + 1]++;
+            offsets[to[i] + 1]++;
+        }
+        for (int i = 0; i < vertexCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int arcCount = offsets[vertexCount];
+        int[] targets = new int[arcCount];
+        int[] capacities = new int[arcCount];
+        int[] reverseArcs = new int[arcCount];
+        Edge[] arcEdges = new Edge[arcCount];
+        Route[] arcRoutes = edgeRoutes == null ? null : new Route[arcCount];
+        int[] next = new int[vertexCount];
+        System.arraycopy(offsets, 0, next, 0, vertexCount);
+        for (int i = 0; i < edgeCount; i++) {
+            int forward = next[from[i]]++;
+            int backward = next[to[i]]++;
+            targets[forward] = to[i];
+            targets[backward] = from[i];
+            capacities[forward] = edgeCapacities[i];
+            reverseArcs[forward] = backward;
+            reverseArcs[backward] = forward;
+            arcEdges[forward] = edges[i];
+            if (arcRoutes != null) {
+                arcRoutes[forward] = edgeRoutes[i];
+            }
+        }
+        return new CompiledNetwork(vertices, index, new Arcs(offsets, targets, capacities, reverseArcs),
+                arcEdges, arcRoutes);
+    }
+
+    /**
+     * Restricts this network to the part that is relevant for a flow from a source to a sink.
+     * <p>
+     * A vertex is relevant if it can be reached from the source and the sink can be reached from it, using only
+     * edges with a positive capacity. All other vertices and their edges cannot carry any flow from the source to
+     * the sink, so they are left out. If the sink cannot be reached at all, the result only consists of the source
+     * and the sink. If hardly anything can be left out, this network is returned as is, because building a
+     * smaller copy would cost more than it saves.
+     *
+     * @param source The index of the source.
+     * @param sink   The index of the sink.
+     * @return A compiled network containing at least the relevant vertices and edges.
+     */
+    CompiledNetwork restrict(int source, int sink) {
+        boolean[] reachable = search(source, true);
+        if (!reachable[sink]) {
+            return build(new Vertex[] {vertices[source], vertices[sink]}, new Edge[0], new int[0], 0, null);
+        }
+        boolean[] reaching = search(sink, false);
+        int vertexCount = 0;
+        Vertex[] relevantVertices = new Vertex[vertices.length];
+        Edge[] relevantEdges = new Edge[targets.length / 2];
+        int[] relevantCapacities = new int[relevantEdges.length];
+        int edgeCount = 0;
+        for (int vertex = 0; vertex < vertices.length; vertex++) {
+            if (!reachable[vertex] || !reaching[vertex]) {
+                continue;
+            }
+            relevantVertices[vertexCount++] = vertices[vertex];
+            for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+                int target = targets[arc];
+                if (edges[arc] != null && capacities[arc] > 0 && reachable[target] && reaching[target]) {
+                    relevantEdges[edgeCount] = edges[arc];
+                    relevantCapacities[edgeCount++] = capacities[arc];
+                }
+            }
+        }
+        if (edgeCount > relevantEdges.length * PRUNE_RATIO) {
+            return this;
+        }
+        return build(Arrays.copyOf(relevantVertices, vertexCount), relevantEdges, relevantCapacities, edgeCount,
+                null);
+    }
+
+    private boolean[] search(int start, boolean forward) {
+        boolean[] visited = new boolean[vertices.length];
+        int[] queue = new int[vertices.length];
+        int head = 0;
+        int tail = 0;
+        visited[start] = true;
+        queue[tail++] = start;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int arc = offsets[current]; arc < offsets[current + 1]; arc++) {
+                // searching backwards follows the residual arcs, whose reverse arcs are the incoming edges
+                boolean usable = forward
+                        ? edges[arc] != null && capacities[arc] > 0
+                        : edges[arc] == null && capacities[reverseArcs[arc]] > 0;
+                int next = targets[arc];
+                if (usable && !visited[next]) {
+                    visited[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Returns the number of vertices in this network.
+     *
+     * @return The vertex count.
+     */
+    int getVertexCount() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the number of arcs in this network, i.e. twice the number of edges.
+     *
+     * @return The arc count.
+     */
+    int getArcCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the index assigned to the given vertex.
+     *
+     * @param vertex The vertex to look up.
+     * @return The index of the vertex or {@code -1} if the vertex is not part of this network.
+     */
+    int indexOf(Vertex vertex) {
+        return index.indexOf(vertex);
+    }
+
+    /**
+     * Returns the vertex with the given index.
+     *
+     * @param index The index of the vertex.
+     * @return The vertex.
+     */
+    Vertex getVertex(int index) {
+        return vertices[index];
+    }
+
+    /**
+     * Returns the first arc leaving the given vertex.
+     *
+     * @param vertex The index of the vertex.
+     * @return The index of the first arc.
+     */
+    int firstArc(int vertex) {
+        return offsets[vertex];
+    }
+
+    /**
+     * Returns the index after the last arc leaving the given vertex.
+     *
+     * @param vertex The index of the vertex.
+     * @return The exclusive end index of the vertex's arcs.
+     */
+    int endArc(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    /**
+     * Returns the vertex the given arc points to.
+     *
+     * @param arc The index of the arc.
+     * @return The index of the target vertex.
+     */
+    int getTarget(int arc) {
+        return targets[arc];
+    }
+
+    /**
+     * Returns the capacity of the given arc. Residual arcs have capacity {@code 0}.
+     *
+     * @param arc The index of the arc.
+     * @return The capacity.
+     */
+    int getCapacity(int arc) {
+        return capacities[arc];
+    }
+
+    /**
+     * Returns the arc paired with the given arc, pointing in the opposite direction.
+     *
+     * @param arc The index of the arc.
+     * @return The index of the reverse arc.
+     */
+    int getReverseArc(int arc) {
+        return reverseArcs[arc];
+    }
+
+    /**
+     * Returns whether the given arc represents an edge of the network, i.e. whether it is not a residual arc.
+     *
+     * @param arc The index of the arc.
+     * @return {@code true} if the arc is a forward arc, {@code false} if not.
+     */
+    boolean isForward(int arc) {
+        return edges[arc] != null;
+    }
+
+    /**
+     * Returns the edge represented by the given arc.
+     *
+     * @param arc The index of a forward arc.
+     * @return The edge or {@code null} if the arc is a residual arc.
+     */
+    Edge getEdge(int arc) {
+        return edges[arc];
+    }
+
+    /**
+     * Returns the route of the original network represented by the given arc if this is a
+     * {@link NetworkReduction reduced} network.
+     *
+     * @param arc The index of a forward arc.
+     * @return The route or {@code null} if this network is not reduced or the arc is a residual arc.
+     */
+    Route getRoute(int arc) {
+        return routes == null ? null : routes[arc];
+    }
+
+    /**
+     * The arrays describing the arcs of a compiled network, grouped to be passed to the constructor.
+     */
+    private static final class Arcs {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] capacities;
+        private final int[] reverseArcs;
+
+        private Arcs(int[] offsets, int[] targets, int[] capacities, int[] reverseArcs) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.capacities = capacities;
+            this.reverseArcs = reverseArcs;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import java.util.Arrays;
+
+/**
+ * An implementation of <a href="https://en.wikipedia.org/wiki/Dinic%27s_algorithm">Dinic's algorithm</a>
+ * on a {@link CompiledNetwork}.
+ * <p>
+ * Each phase builds a level graph using a breadth-first-search from the source and then saturates it
+ * with a blocking flow found by depth-first-searches. The searches use a current arc pointer per vertex,
+ * so every arc is discarded at most once per phase. The number of phases is bounded by the number of vertices.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+final class Dinic {
+
+    private static final int UNREACHED = -1;
+
+    private final CompiledNetwork network;
+    private final ResidualNetwork residual;
+    private final int source;
+    private final int sink;
+    private final int[] levels;
+    private final int[] currentArcs;
+    private final int[] queue;
+    private final int[] pathArcs;
+
+    private Dinic(ResidualNetwork residual, int source, int sink) {
+        this.network = residual.getNetwork();
+        this.residual = residual;
+        this.source = source;
+        this.sink = sink;
+        int vertexCount = network.getVertexCount();
+        this.levels = new int[vertexCount];
+        this.currentArcs = new int[vertexCount];
+        this.queue = new int[vertexCount];
+        this.pathArcs = new int[vertexCount];
+    }
+
+    /**
+     * Augments the given flow until it is maximal.
+     *
+     * @param residual The residual network of the flow. It is modified in place.
+     * @param source   The index of the source vertex.
+     * @param sink     The index of the sink vertex.
+     */
+    static void maximize(ResidualNetwork residual, int source, int sink) {
+        Dinic algorithm = new Dinic(residual, source, sink);
+        while (algorithm.buildLevelGraph()) {
+            Cancellation.check();
+            algorithm.augmentBlockingFlow();
+        }
+    }
+
+    private boolean buildLevelGraph() {
+        Arrays.fill(levels, UNREACHED);
+        levels[source] = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int arc = network.firstArc(current); arc < network.endArc(current); arc++) {
+                int next = network.getTarget(arc);
+                if (levels[next] == UNREACHED && residual.getResidualCapacity(arc) > 0) {
+                    levels[next] = levels[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return levels[sink] != UNREACHED;
+    }
+
+    private boolean isAdmissible(int vertex, int arc) {
+        return residual.getResidualCapacity(arc) > 0 && levels[network.getTarget(arc)] == levels[vertex] + 1;
+    }
+
+    private int getTail(int arc) {
+        return network.getTarget(network.getReverseArc(arc));
+    }
+
+    private void augmentBlockingFlow() {
+        for (int vertex = 0; vertex < network.getVertexCount(); vertex++) {
+            currentArcs[vertex] = network.firstArc(vertex);
+        }
+        int depth = 0;
+        int vertex = source;
+        while (true) {
+            if (vertex == sink) {
+                Cancellation.check();
+                depth = augmentPath(depth);
+                vertex = depth == 0 ? source : network.getTarget(pathArcs[depth - 1]);
+                continue;
+            }
+            while (currentArcs[vertex] < network.endArc(vertex) && !isAdmissible(vertex, currentArcs[vertex])) {
+                currentArcs[vertex]++;
+            }
+            if (currentArcs[vertex] < network.endArc(vertex)) {
+                pathArcs[depth++] = currentArcs[vertex];
+                vertex = network.getTarget(currentArcs[vertex]);
+            } else if (vertex == source) {
+                return;
+            } else {
+                // dead end: remove the vertex from the level graph and retreat
+                levels[vertex] = UNREACHED;
+                vertex = getTail(pathArcs[--depth]);
+                currentArcs[vertex]++;
+            }
+        }
+    }
+
+    private int augmentPath(int length) {
+        int bottleneckCapacity = Integer.MAX_VALUE;
+        for (int i = 0; i < length; i++) {
+            bottleneckCapacity = Math.min(bottleneckCapacity, residual.getResidualCapacity(pathArcs[i]));
+        }
+        int firstSaturated = length;
+        for (int i = length - 1; i >= 0; i--) {
+            int arc = pathArcs[i];
+            residual.push(arc, bottleneckCapacity);
+            if (residual.getResidualCapacity(arc) == 0) {
+                firstSaturated = i;
+            }
+        }
+        return firstSaturated;
+    }
+}
@@ -3,7 +3,6 @@ package edu.kit.informatik.escapenetworks.network;
 import edu.kit.informatik.util.Checks;
 
 import java.util.List;
-import java.util.Objects;
 
 /**
  * A directed edge between to {@link Vertex vertices}.
@@ -17,12 +16,14 @@ public final class Edge {
 
     private final Vertex from;
     private final Vertex to;
-    private final List<Vertex> vertices;
+    private final int hash;
 
     private Edge(Vertex from, Vertex to) {
         this.from = from;
         this.to = to;
-        this.vertices = List.of(from, to);
+        // multiply by the golden ratio so that (a, b) and (b, a) or similar identifiers do not collide
+        int h = from.hashCode() * 0x9E3779B9 + to.hashCode();
+        this.hash = h ^ (h >>> 16);
     }
 
     /**
@@ -63,7 +64,7 @@ public final class Edge {
      * @return This edge as an immutable list.
      */
     public List<Vertex> asList() {
-        return vertices;
+        return List.of(from, to);
     }
 
     /**
@@ -95,12 +96,12 @@ public final class Edge {
             return false;
         }
         Edge edge = (Edge) o;
-        return Objects.equals(from, edge.from) && Objects.equals(to, edge.to);
+        return hash == edge.hash && from.equals(edge.from) && to.equals(edge.to);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(from, to);
+        return hash;
     }
 
     @Override
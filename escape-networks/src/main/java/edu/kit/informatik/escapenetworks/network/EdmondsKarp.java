@@ -0,0 +1,113 @@
+package edu.kit.informatik.escapenetworks.network;
+
+/**
+ * An implementation of the <a href="https://en.wikipedia.org/wiki/Edmonds%E2%80%93Karp_algorithm">Edmonds-Karp</a>
+ * algorithm on a {@link CompiledNetwork}.
+ * <p>
+ * Each iteration finds one shortest augmenting path using a breadth-first-search and augments the flow along it.
+ * Visited vertices are marked with the number of the search instead of a flag, so the marks
+ * never have to be cleared between iterations.
+ * <p>
+ * The algorithm can also run with <a href="https://en.wikipedia.org/wiki/Maximum_flow_problem">capacity scaling</a>:
+ * in that mode, only arcs with a residual capacity of at least a threshold are considered, and the threshold
+ * is halved whenever no such path is left. This reduces the number of augmentations to O(E * log(U)),
+ * where U is the largest capacity.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+final class EdmondsKarp {
+
+    private final CompiledNetwork network;
+    private final ResidualNetwork residual;
+    private final int source;
+    private final int sink;
+    private final int[] parentArcs;
+    private final int[] visits;
+    private final int[] queue;
+    private int search;
+
+    private EdmondsKarp(ResidualNetwork residual, int source, int sink) {
+        this.network = residual.getNetwork();
+        this.residual = residual;
+        this.source = source;
+        this.sink = sink;
+        this.parentArcs = new int[network.getVertexCount()];
+        this.visits = new int[network.getVertexCount()];
+        this.queue = new int[network.getVertexCount()];
+        this.search = 0;
+    }
+
+    /**
+     * Augments the given flow until it is maximal.
+     *
+     * @param residual The residual network of the flow. It is modified in place.
+     * @param source   The index of the source vertex.
+     * @param sink     The index of the sink vertex.
+     */
+    static void maximize(ResidualNetwork residual, int source, int sink) {
+        new EdmondsKarp(residual, source, sink).augmentPaths(1);
+    }
+
+    /**
+     * Augments the given flow until it is maximal, using capacity scaling.
+     *
+     * @param residual The residual network of the flow. It is modified in place.
+     * @param source   The index of the source vertex.
+     * @param sink     The index of the sink vertex.
+     */
+    static void maximizeWithScaling(ResidualNetwork residual, int source, int sink) {
+        EdmondsKarp algorithm = new EdmondsKarp(residual, source, sink);
+        int maxCapacity = 0;
+        for (int arc = 0; arc < algorithm.network.getArcCount(); arc++) {
+            maxCapacity = Math.max(maxCapacity, residual.getResidualCapacity(arc));
+        }
+        for (int threshold = Integer.highestOneBit(maxCapacity); threshold > 0; threshold >>= 1) {
+            algorithm.augmentPaths(threshold);
+        }
+    }
+
+    private void augmentPaths(int threshold) {
+        while (findPath(threshold)) {
+            Cancellation.check();
+            augmentFlow();
+        }
+    }
+
+    private boolean findPath(int threshold) {
+        search++;
+        visits[source] = search;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int arc = network.firstArc(current); arc < network.endArc(current); arc++) {
+                int next = network.getTarget(arc);
+                if (visits[next] != search && residual.getResidualCapacity(arc) >= threshold) {
+                    visits[next] = search;
+                    parentArcs[next] = arc;
+                    if (next == sink) {
+                        return true;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int getParent(int vertex) {
+        return network.getTarget(network.getReverseArc(parentArcs[vertex]));
+    }
+
+    private void augmentFlow() {
+        int bottleneckCapacity = Integer.MAX_VALUE;
+        for (int vertex = sink; vertex != source; vertex = getParent(vertex)) {
+            bottleneckCapacity = Math.min(bottleneckCapacity, residual.getResidualCapacity(parentArcs[vertex]));
+        }
+        for (int vertex = sink; vertex != source; vertex = getParent(vertex)) {
+            residual.push(parentArcs[vertex], bottleneckCapacity);
+        }
+    }
+}
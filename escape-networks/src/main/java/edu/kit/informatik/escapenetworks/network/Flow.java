@@ -2,17 +2,27 @@ package edu.kit.informatik.escapenetworks.network;
 
 import edu.kit.informatik.util.Checks;
 
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CancellationException;
+import java.util.function.ObjIntConsumer;
 
 /**
- * A self-contained class to calculate the maximum possible flow through
- * a network from a source vertex to a sink vertex.
+ * A maximum flow through a network from a source vertex to a sink vertex, or from several sources to several sinks.
+ * <p>
+ * The computation runs on the {@link CompiledNetwork compiled form} of the network, restricted to the vertices
+ * that lie on a path from the source to the sink. If there is no such path, the flow is empty without running
+ * an algorithm at all. Chains of vertices with a single incoming and outgoing edge are
+ * {@link NetworkReduction contracted} before the computation; cuts are mapped back to the edges of the network.
+ * The flow is represented by its {@link ResidualNetwork residual network}, which the algorithms
+ * update in place. Once a flow has been {@link #compute(Network, Vertex, Vertex, FlowAlgorithm) computed},
+ * it is not modified anymore and can be used as the starting point for the computation on a
+ * larger version of the network ({@link #resume(Flow, Network, FlowAlgorithm)}).
+ * <p>
+ * Computations can run on worker threads: they check for {@link Thread#interrupt() interruption} regularly and
+ * are abandoned with a {@link CancellationException} once the computing thread has been interrupted.
  *
  * @author JohnnyJayJay
  * @version 1.0.0
@@ -20,87 +30,334 @@ import java.util.stream.Stream;
 public final class Flow {
 
     private final Network network;
-    private final Graph residualGraph;
-    private final Vertex source;
-    private final Vertex sink;
-    private final Map<Edge, Integer> flow;
+    private final ResidualNetwork residual;
+    private final Set<Vertex> sources;
+    private final Set<Vertex> sinks;
+    private final int source;
+    private final int sink;
 
-    private Flow(Network network, Graph residualGraph, Vertex source, Vertex sink, Map<Edge, Integer> flow) {
+    private Flow(Network network, ResidualNetwork residual, Set<Vertex> sources, Set<Vertex> sinks,
+                 int source, int sink) {
         this.network = network;
-        this.residualGraph = residualGraph;
+        this.residual = residual;
+        this.sources = sources;
+        this.sinks = sinks;
         this.source = source;
         this.sink = sink;
-        this.flow = flow;
     }
 
-    private static Flow create(Network network, Vertex source, Vertex sink) {
+    private static Flow create(Network network, Set<Vertex> sources, Set<Vertex> sinks, boolean reduce) {
         Checks.notNull(network, "Network");
+        Checks.notNull(sources, "Sources");
+        Checks.notNull(sinks, "Sinks");
+        Checks.argument(!sources.isEmpty(), "There must be at least one source");
+        Checks.argument(!sinks.isEmpty(), "There must be at least one sink");
+        for (Vertex source : sources) {
+            Checks.notNull(source, "Source vertex");
+            Checks.argument(network.isValidSource(source),
+                    "Given vertex is not a valid source");
+            Checks.argument(!sinks.contains(source),
+                    "Source and sink must be different vertices");
+        }
+        for (Vertex sink : sinks) {
+            Checks.notNull(sink, "Sink vertex");
+            Checks.argument(network.isValidSink(sink),
+                    "Given vertex is not a valid sink");
+        }
+
+        CompiledNetwork compiled = network.compile();
+        if (sources.size() > 1 || sinks.size() > 1) {
+            compiled = compiled.withTerminals(indicesOf(compiled, sources), indicesOf(compiled, sinks));
+        }
+        Vertex source = sources.size() > 1 ? CompiledNetwork.SUPER_SOURCE : sources.iterator().next();
+        Vertex sink = sinks.size() > 1 ? CompiledNetwork.SUPER_SINK : sinks.iterator().next();
+        CompiledNetwork relevant = compiled.restrict(compiled.indexOf(source), compiled.indexOf(sink));
+        if (reduce) {
+            relevant = NetworkReduction.reduce(relevant, relevant.indexOf(source), relevant.indexOf(sink));
+        }
+        return new Flow(network, ResidualNetwork.create(relevant), Set.copyOf(sources), Set.copyOf(sinks),
+                relevant.indexOf(source), relevant.indexOf(sink));
+    }
+
+    private static int[] indicesOf(CompiledNetwork compiled, Set<Vertex> vertices) {
+        return vertices.stream().mapToInt(compiled::indexOf).toArray();
+    }
+
+    private boolean adopt(Flow previous) {
+        CompiledNetwork compiled = residual.getNetwork();
+        Map<Edge, Long> flows = new HashMap<>();
+        previous.forEachEdgeFlow((edge, amount) -> flows.merge(edge, (long) amount, Long::sum));
+        for (Map.Entry<Edge, Long> flow : flows.entrySet()) {
+            Edge edge = flow.getKey();
+            long remaining = flow.getValue();
+            int from = compiled.indexOf(edge.getFrom());
+            int to = compiled.indexOf(edge.getTo());
+            if (from < 0 || to < 0) {
+                return false;
+            }
+            // virtual edges may be represented by several parallel arcs
+            for (int arc = compiled.firstArc(from); remaining > 0 && arc < compiled.endArc(from); arc++) {
+                if (compiled.isForward(arc) && compiled.getTarget(arc) == to) {
+                    int amount = (int) Math.min(remaining, residual.getResidualCapacity(arc));
+                    residual.push(arc, amount);
+                    remaining -= amount;
+                }
+            }
+            if (remaining > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void forEachEdgeFlow(ObjIntConsumer<Edge> consumer) {
+        CompiledNetwork compiled = residual.getNetwork();
+        for (int arc = 0; arc < compiled.getArcCount(); arc++) {
+            int amount = residual.getFlow(arc);
+            if (amount > 0 && compiled.isForward(arc)) {
+                Route route = compiled.getRoute(arc);
+                if (route == null) {
+                    consumer.accept(compiled.getEdge(arc), amount);
+                } else {
+                    route.distribute(amount, consumer);
+                }
+            }
+        }
+    }
+
+    private void forEachSectionFlow(ObjIntConsumer<Edge> consumer) {
+        forEachEdgeFlow((edge, amount) -> {
+            if (edge.getFrom() != CompiledNetwork.SUPER_SOURCE && edge.getTo() != CompiledNetwork.SUPER_SINK) {
+                consumer.accept(edge, amount);
+            }
+        });
+    }
+
+    private void maximize(FlowAlgorithm algorithm) {
+        if (residual.getNetwork().getArcCount() == 0) {
+            // the sink cannot be reached from the source
+            return;
+        }
+        switch (algorithm) {
+            case EDMONDS_KARP:
+                EdmondsKarp.maximize(residual, source, sink);
+                break;
+            case CAPACITY_SCALING:
+                EdmondsKarp.maximizeWithScaling(residual, source, sink);
+                break;
+            case DINIC:
+                Dinic.maximize(residual, source, sink);
+                break;
+            case PUSH_RELABEL:
+                PushRelabel.maximize(residual, source, sink);
+                break;
+            default:
+                throw new AssertionError("Unknown algorithm " + algorithm);
+        }
+    }
+
+    /**
+     * Computes the maximum possible flow on the given network,
+     * starting from the source vertex and ending on the sink vertex, using the given algorithm.
+     *
+     * @param network   The network to calculate the flow for.
+     * @param source    The vertex where the flow starts.
+     * @param sink      The vertex where the flow ends.
+     * @param algorithm The algorithm to use.
+     * @return The maximum flow from {@code source} to {@code sink} in {@code network}.
+     * @throws NullPointerException     if one of the arguments is {@code null}.
+     * @throws IllegalArgumentException if the given source/sink vertex is not a valid source/sink in the network.
+     * @throws CancellationException    if the current thread is interrupted during the computation.
+     */
+    public static Flow compute(Network network, Vertex source, Vertex sink, FlowAlgorithm algorithm) {
         Checks.notNull(source, "Source vertex");
         Checks.notNull(sink, "Sink vertex");
-        Checks.argument(network.isValidSource(source),
-                "Given vertex is not a valid source");
-        Checks.argument(network.isValidSink(sink),
-                "Given vertex is not a valid sink");
+        return compute(network, Set.of(source), Set.of(sink), algorithm);
+    }
+
+    /**
+     * Computes the maximum possible flow on the given network that starts from any of the given sources and ends
+     * on any of the given sinks, using the given algorithm.
+     * <p>
+     * The flow is computed in a single run: a virtual source that supplies all sources and a virtual sink that
+     * collects from all sinks are added to the compiled form of the network, which leaves the network itself
+     * untouched. This is not the same as adding up the flows between every pair of source and sink, because
+     * those flows share the capacity of the sections between them.
+     *
+     * @param network   The network to calculate the flow for.
+     * @param sources   The vertices where the flow starts.
+     * @param sinks     The vertices where the flow ends.
+     * @param algorithm The algorithm to use.
+     * @return The maximum flow from {@code sources} to {@code sinks} in {@code network}.
+     * @throws NullPointerException     if one of the arguments or vertices is {@code null}.
+     * @throws IllegalArgumentException if one of the sets is empty, if one of the given sources/sinks is not a valid
+     *                                  source/sink in the network or if a vertex is given as source and sink.
+     * @throws CancellationException    if the current thread is interrupted during the computation.
+     */
+    public static Flow compute(Network network, Set<Vertex> sources, Set<Vertex> sinks, FlowAlgorithm algorithm) {
+        Checks.notNull(algorithm, "Algorithm");
+        Flow flow = Flow.create(network, sources, sinks, true);
+        flow.maximize(algorithm);
+        return flow;
+    }
+
+    /**
+     * Computes the maximum possible flow on the given network between the source and sink of a previous flow,
+     * starting from the assignment of that previous flow instead of the empty flow.
+     * <p>
+     * This is meant for networks that evolved from the network of the previous flow by
+     * {@link Network#update(Edge, int) adding edges}: the previous flow is still valid in the new network,
+     * so only the additional capacity has to be augmented. If the previous flow does not fit into the
+     * network (e.g. because an edge was removed or its capacity reduced), the flow is computed from scratch.
+     *
+     * @param previous  The flow to start from.
+     * @param network   The network to calculate the flow for.
+     * @param algorithm The algorithm to use.
+     * @return The maximum flow from the source to the sink of {@code previous} in {@code network}.
+     * @throws NullPointerException     if one of the arguments is {@code null}.
+     * @throws IllegalArgumentException if the source/sink of the previous flow is not a valid source/sink
+     *                                  in the network.
+     * @throws CancellationException    if the current thread is interrupted during the computation.
+     */
+    public static Flow resume(Flow previous, Network network, FlowAlgorithm algorithm) {
+        Checks.notNull(previous, "Previous flow");
+        Checks.notNull(algorithm, "Algorithm");
+        if (previous.network == network) {
+            return previous;
+        }
+        // the previous flow is adopted edge by edge, which requires a network that has not been reduced
+        Flow flow = Flow.create(network, previous.sources, previous.sinks, false);
+        if (!flow.adopt(previous)) {
+            flow = Flow.create(network, previous.sources, previous.sinks, true);
+        }
+        flow.maximize(algorithm);
+        return flow;
+    }
 
-        Set<Edge> originalEdges = network.getGraph().getEdges();
-        // add residual edges
-        Set<Edge> completeEdges = Stream.concat(originalEdges.stream(), originalEdges.stream().map(Edge::reverse))
-                .collect(Collectors.toSet());
-        Map<Edge, Integer> initialFlow = completeEdges.stream()
-                .collect(Collectors.toMap((e) -> e, (e) -> 0, (m1, m2) -> m1, HashMap::new));
-        Graph residualGraph = Graph.create(network.getGraph().getVertices(), completeEdges);
-        return new Flow(network, residualGraph, source, sink, initialFlow);
+    /**
+     * Returns the network this flow was computed on.
+     *
+     * @return The network.
+     */
+    public Network getNetwork() {
+        return network;
     }
 
-    private int getFlow(Edge edge) {
-        return flow.get(edge);
+    /**
+     * Returns the vertex this flow starts from.
+     *
+     * @return The source vertex.
+     * @throws IllegalStateException if this flow starts from several sources.
+     */
+    public Vertex getSource() {
+        Checks.validate(sources.size() == 1, () -> new IllegalStateException("Flow has several sources"));
+        return sources.iterator().next();
     }
 
-    private int getRemainingCapacity(Edge edge) {
-        return (network.getGraph().contains(edge) ? network.getCapacity(edge) : 0)
-                - getFlow(edge);
+    /**
+     * Returns the vertex this flow ends on.
+     *
+     * @return The sink vertex.
+     * @throws IllegalStateException if this flow ends on several sinks.
+     */
+    public Vertex getSink() {
+        Checks.validate(sinks.size() == 1, () -> new IllegalStateException("Flow has several sinks"));
+        return sinks.iterator().next();
     }
 
-    private Edge getBottleneck(Path path) {
-        return path.getEdges().stream()
-                .min(Comparator.comparingInt(this::getRemainingCapacity))
-                .orElseThrow(AssertionError::new);
+    /**
+     * Returns the vertices this flow starts from.
+     *
+     * @return The immutable set of sources.
+     */
+    public Set<Vertex> getSources() {
+        return sources;
     }
 
-    private void augmentFlow(Path path) {
-        int bottleneckCapacity = getRemainingCapacity(getBottleneck(path));
-        for (Edge edge : path.getEdges()) {
-            flow.compute(edge, (e, flow) -> flow + bottleneckCapacity);
-            flow.compute(edge.reverse(), (e, flow) -> flow - bottleneckCapacity);
-        }
+    /**
+     * Returns the vertices this flow ends on.
+     *
+     * @return The immutable set of sinks.
+     */
+    public Set<Vertex> getSinks() {
+        return sinks;
+    }
+
+    /**
+     * Returns the value of this flow, i.e. the total amount of flow arriving at the sink.
+     *
+     * @return The flow value.
+     */
+    public long getValue() {
+        return residual.getNetInflow(sink);
     }
 
-    private Graph computeRemainingGraph() {
-        return Graph.create(
-                residualGraph.getVertices(),
-                residualGraph.getEdges().stream()
-                        .filter((e) -> getRemainingCapacity(e) > 0)
-                        .collect(Collectors.toSet())
-        );
+    /**
+     * Returns the amount of flow on every edge of the network.
+     * <p>
+     * The assignment is derived from this flow in {@code O(E)} time; it does not contain any of the virtual edges
+     * used to compute flows between several sources and sinks.
+     *
+     * @return The assignment of this flow.
+     */
+    public FlowAssignment getAssignment() {
+        return FlowAssignment.create(network, sources, sinks, this::forEachSectionFlow);
     }
 
-    private void maximize() {
-        while (true) {
-            Graph remaining = computeRemainingGraph();
-            Optional<Path> path = remaining.findPath(source, sink);
-            if (path.isPresent()) {
-                augmentFlow(path.get());
+    /**
+     * Returns the edges of a minimum cut between the source and the sink.
+     * <p>
+     * The cut is derived from this flow without running an algorithm again: it separates the vertices
+     * that can still be reached from the source in the residual network from all other vertices.
+     * If this flow is maximal, the returned edges are all saturated and their capacities add up to
+     * the {@link #getValue() value} of this flow, i.e. they are the bottleneck of the network.
+     *
+     * @return The immutable set of edges that lead from the source side to the sink side of the cut.
+     */
+    public Set<Edge> getMinimumCut() {
+        CompiledNetwork compiled = residual.getNetwork();
+        boolean[] reachable = new boolean[compiled.getVertexCount()];
+        int[] queue = new int[compiled.getVertexCount()];
+        int head = 0;
+        int tail = 0;
+        reachable[source] = true;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int arc = compiled.firstArc(current); arc < compiled.endArc(current); arc++) {
+                int next = compiled.getTarget(arc);
+                if (!reachable[next] && residual.getResidualCapacity(arc) > 0) {
+                    reachable[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        Set<Edge> cut = new HashSet<>();
+        for (int i = 0; i < tail; i++) {
+            int vertex = queue[i];
+            for (int arc = compiled.firstArc(vertex); arc < compiled.endArc(vertex); arc++) {
+                if (compiled.isForward(arc) && !reachable[compiled.getTarget(arc)]) {
+                    Route route = compiled.getRoute(arc);
+                    if (route == null) {
+                        cut.add(compiled.getEdge(arc));
+                    } else {
+                        route.collectCut(cut);
+                    }
+                }
+            }
+        }
+        Set<Edge> sections = new HashSet<>();
+        for (Edge edge : cut) {
+            // a saturated virtual edge means that all sections of its source or sink are saturated
+            if (edge.getFrom() == CompiledNetwork.SUPER_SOURCE) {
+                sections.addAll(network.getGraph().getOutgoingEdges(edge.getTo()));
+            } else if (edge.getTo() == CompiledNetwork.SUPER_SINK) {
+                sections.addAll(network.getGraph().getIncomingEdges(edge.getFrom()));
             } else {
-                break;
+                sections.add(edge);
             }
         }
-    }
-
-    private long getTotalFlow() {
-        return network.getGraph().getIncomingEdges(sink)
-                .stream()
-                .mapToLong(this::getFlow)
-                .sum();
+        return Set.copyOf(sections);
     }
 
     /**
@@ -115,9 +372,23 @@ public final class Flow {
      * @throws IllegalArgumentException if the given source/sink vertex is not a valid source/sink in the network.
      */
     public static long computeMaxFlow(Network network, Vertex source, Vertex sink) {
-        Flow flow = Flow.create(network, source, sink);
-        flow.maximize();
-        return flow.getTotalFlow();
+        return computeMaxFlow(network, source, sink, FlowAlgorithm.EDMONDS_KARP);
+    }
+
+    /**
+     * Calculates the maximum possible flow to put on the given network,
+     * starting from the source vertex and ending on the sink vertex, using the given algorithm.
+     *
+     * @param network   The network to calculate the flow for.
+     * @param source    The vertex where the flow starts.
+     * @param sink      The vertex where the flow ends.
+     * @param algorithm The algorithm to use.
+     * @return The maximum flow found from {@code source} to {@code sink} in {@code network}.
+     * @throws NullPointerException     if one of the arguments is {@code null}.
+     * @throws IllegalArgumentException if the given source/sink vertex is not a valid source/sink in the network.
+     */
+    public static long computeMaxFlow(Network network, Vertex source, Vertex sink, FlowAlgorithm algorithm) {
+        return compute(network, source, sink, algorithm).getValue();
     }
 
 }
@@ -0,0 +1,52 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import java.util.Locale;
+
+/**
+ * The built-in algorithms {@link Flow} can use to compute a maximum flow.
+ * <p>
+ * All algorithms compute the same maximum flow value, they only differ in their runtime characteristics.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public enum FlowAlgorithm implements MaxFlowSolver {
+
+    /**
+     * The Edmonds-Karp algorithm, augmenting one shortest path at a time. Runs in O(V * E^2).
+     */
+    EDMONDS_KARP,
+    /**
+     * The Edmonds-Karp algorithm with capacity scaling, only augmenting paths with a large remaining capacity
+     * first. Needs O(E * log(U)) augmentations, where U is the largest capacity, which makes it the better
+     * choice for networks with widely varying capacities.
+     */
+    CAPACITY_SCALING,
+    /**
+     * Dinic's algorithm, augmenting a blocking flow in the level graph per phase. Runs in O(V^2 * E)
+     * and needs at most V phases, which makes it the better choice for deep, layered networks.
+     */
+    DINIC,
+    /**
+     * The highest-label push-relabel algorithm with gap heuristic and global relabeling. Runs in O(V^2 * sqrt(E))
+     * and does not search for augmenting paths at all, which makes it the better choice for dense networks.
+     */
+    PUSH_RELABEL;
+
+    /**
+     * Returns the name of this algorithm in lower case with dashes instead of underscores,
+     * e.g. {@code "edmonds-karp"}.
+     *
+     * @return The name of this algorithm.
+     */
+    @Override
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    @Override
+    public long computeMaxFlow(Network network, Vertex source, Vertex sink) {
+        return Flow.computeMaxFlow(network, source, sink, this);
+    }
+
+}
@@ -0,0 +1,232 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import edu.kit.informatik.util.Checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The amount of flow on every edge of a network, as assigned by a maximum {@link Flow}.
+ * <p>
+ * The amounts are stored in a primitive array that is indexed like the arcs of the
+ * {@link CompiledNetwork compiled form} of the network, so no objects are created per edge.
+ * The assignment can be {@link #decompose() decomposed} into the paths the flow takes from the sources to the sinks.
+ * <p>
+ * This class is immutable.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see Flow#getAssignment()
+ */
+public final class FlowAssignment {
+
+    private final Network network;
+    private final CompiledNetwork compiled;
+    private final int[] flows;
+    private final Set<Vertex> sources;
+    private final Set<Vertex> sinks;
+
+    private FlowAssignment(Network network, CompiledNetwork compiled, int[] flows,
+                           Set<Vertex> sources, Set<Vertex> sinks) {
+        this.network = network;
+        this.compiled = compiled;
+        this.flows = flows;
+        this.sources = sources;
+        this.sinks = sinks;
+    }
+
+    /**
+     * Creates the assignment of a flow.
+     *
+     * @param network   The network the flow was computed on.
+     * @param sources   The sources of the flow.
+     * @param sinks     The sinks of the flow.
+     * @param edgeFlows A function that passes every edge of the network that carries flow and the amount of flow
+     *                  on it to the given consumer.
+     * @return The assignment.
+     */
+    static FlowAssignment create(Network network, Set<Vertex> sources, Set<Vertex> sinks,
+                                 Consumer<ObjIntConsumer<Edge>> edgeFlows) {
+        CompiledNetwork compiled = network.compile();
+        FlowAssignment assignment = new FlowAssignment(network, compiled, new int[compiled.getArcCount()],
+                sources, sinks);
+        edgeFlows.accept((edge, amount) -> assignment.flows[assignment.arcOf(edge)] += amount);
+        return assignment;
+    }
+
+    private int arcOf(Edge edge) {
+        int from = compiled.indexOf(edge.getFrom());
+        int to = compiled.indexOf(edge.getTo());
+        if (from < 0 || to < 0) {
+            return -1;
+        }
+        for (int arc = compiled.firstArc(from); arc < compiled.endArc(from); arc++) {
+            if (compiled.isForward(arc) && compiled.getTarget(arc) == to) {
+                return arc;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the network the flow was computed on.
+     *
+     * @return The network.
+     */
+    public Network getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns the amount of flow on the given edge.
+     *
+     * @param edge The edge.
+     * @return The flow, between {@code 0} and the capacity of the edge.
+     * @throws NullPointerException     if the edge is {@code null}.
+     * @throws IllegalArgumentException if the edge is not part of the network.
+     */
+    public int getFlow(Edge edge) {
+        Checks.notNull(edge, "Edge");
+        int arc = arcOf(edge);
+        Checks.argument(arc >= 0, "Network does not contain edge");
+        return flows[arc];
+    }
+
+    /**
+     * Passes every edge that carries flow and the amount of flow on it to the given consumer.
+     *
+     * @param consumer The consumer.
+     * @throws NullPointerException if the consumer is {@code null}.
+     */
+    public void forEach(ObjIntConsumer<Edge> consumer) {
+        Checks.notNull(consumer, "Consumer");
+        for (int arc = 0; arc < flows.length; arc++) {
+            if (flows[arc] > 0) {
+                consumer.accept(compiled.getEdge(arc), flows[arc]);
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the flow, i.e. the total amount of flow leaving the sources.
+     *
+     * @return The flow value.
+     */
+    public long getValue() {
+        long value = 0;
+        for (Vertex source : sources) {
+            int vertex = compiled.indexOf(source);
+            for (int arc = compiled.firstArc(vertex); arc < compiled.endArc(vertex); arc++) {
+                value += flows[arc];
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Decomposes this flow into paths from the sources to the sinks.
+     * <p>
+     * The paths are found by following edges that carry flow from a source until a sink is reached.
+     * Every path carries the smallest amount of flow on its edges, which is then removed from the edges.
+     * If the walk runs into a cycle instead, the flow around the cycle is removed, because it does not contribute to
+     * the value. As every step removes the flow from at least one edge, there are at most {@code E} paths and the
+     * decomposition takes {@code O(E * V)} time. The amounts of the paths add up to the {@link #getValue() value}
+     * of the flow.
+     *
+     * @return The paths, in the order they were found.
+     */
+    public List<FlowPath> decompose() {
+        int vertexCount = compiled.getVertexCount();
+        int[] remaining = flows.clone();
+        int[] nextArc = new int[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            nextArc[vertex] = compiled.firstArc(vertex);
+        }
+        boolean[] isSink = new boolean[vertexCount];
+        for (Vertex sink : sinks) {
+            isSink[compiled.indexOf(sink)] = true;
+        }
+        int[] position = new int[vertexCount];
+        Arrays.fill(position, -1);
+        int[] pathArcs = new int[vertexCount];
+        List<FlowPath> paths = new ArrayList<>();
+        for (Vertex source : sources) {
+            int start = compiled.indexOf(source);
+            int length = 0;
+            int current = start;
+            position[start] = 0;
+            while (true) {
+                if (isSink[current]) {
+                    paths.add(takePath(start, pathArcs, length, remaining));
+                    clear(start, pathArcs, length, position);
+                    length = 0;
+                    current = start;
+                    position[start] = 0;
+                    continue;
+                }
+                int arc = nextArc(current, nextArc, remaining);
+                if (arc < 0) {
+                    // only the source can run out of flow; every other vertex passes on all flow it receives
+                    break;
+                }
+                int next = compiled.getTarget(arc);
+                if (position[next] >= 0) {
+                    cancelCycle(pathArcs, position[next], length, arc, remaining);
+                    for (int i = position[next]; i < length; i++) {
+                        position[compiled.getTarget(pathArcs[i])] = -1;
+                    }
+                    length = position[next];
+                } else {
+                    pathArcs[length++] = arc;
+                    position[next] = length;
+                }
+                current = next;
+            }
+            clear(start, pathArcs, length, position);
+        }
+        return List.copyOf(paths);
+    }
+
+    private int nextArc(int vertex, int[] nextArc, int[] remaining) {
+        while (nextArc[vertex] < compiled.endArc(vertex) && remaining[nextArc[vertex]] == 0) {
+            nextArc[vertex]++;
+        }
+        return nextArc[vertex] < compiled.endArc(vertex) ? nextArc[vertex] : -1;
+    }
+
+    private FlowPath takePath(int start, int[] pathArcs, int length, int[] remaining) {
+        int amount = Integer.MAX_VALUE;
+        for (int i = 0; i < length; i++) {
+            amount = Math.min(amount, remaining[pathArcs[i]]);
+        }
+        List<Vertex> vertices = new ArrayList<>(length + 1);
+        vertices.add(compiled.getVertex(start));
+        for (int i = 0; i < length; i++) {
+            remaining[pathArcs[i]] -= amount;
+            vertices.add(compiled.getVertex(compiled.getTarget(pathArcs[i])));
+        }
+        return FlowPath.of(Path.fromVertices(vertices), amount);
+    }
+
+    private static void cancelCycle(int[] pathArcs, int from, int length, int closingArc, int[] remaining) {
+        int amount = remaining[closingArc];
+        for (int i = from; i < length; i++) {
+            amount = Math.min(amount, remaining[pathArcs[i]]);
+        }
+        remaining[closingArc] -= amount;
+        for (int i = from; i < length; i++) {
+            remaining[pathArcs[i]] -= amount;
+        }
+    }
+
+    private void clear(int start, int[] pathArcs, int length, int[] position) {
+        position[start] = -1;
+        for (int i = 0; i < length; i++) {
+            position[compiled.getTarget(pathArcs[i])] = -1;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import edu.kit.informatik.util.Checks;
+
+import java.util.Objects;
+
+/**
+ * A path from a source to a sink together with the amount of flow that is sent along it,
+ * i.e. a single evacuation route of a {@link FlowAssignment#decompose() decomposed} flow.
+ * <p>
+ * This class is immutable.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see FlowAssignment
+ */
+public final class FlowPath {
+
+    private final Path path;
+    private final int amount;
+
+    private FlowPath(Path path, int amount) {
+        this.path = path;
+        this.amount = amount;
+    }
+
+    /**
+     * Creates a new flow path.
+     *
+     * @param path   The path the flow takes.
+     * @param amount The amount of flow on the path.
+     * @return The new flow path.
+     * @throws NullPointerException     if the path is {@code null}.
+     * @throws IllegalArgumentException if the amount is not positive.
+     */
+    public static FlowPath of(Path path, int amount) {
+        Checks.notNull(path, "Path");
+        Checks.argument(amount > 0, "Amount of flow must be positive");
+        return new FlowPath(path, amount);
+    }
+
+    /**
+     * Returns the path the flow takes.
+     *
+     * @return The path.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the amount of flow that is sent along the path.
+     *
+     * @return The amount.
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FlowPath flowPath = (FlowPath) o;
+        return amount == flowPath.amount && path.equals(flowPath.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, amount);
+    }
+
+    @Override
+    public String toString() {
+        return amount + " " + path;
+    }
+}
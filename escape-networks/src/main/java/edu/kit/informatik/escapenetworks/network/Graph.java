@@ -1,7 +1,8 @@
 package edu.kit.informatik.escapenetworks.network;
 
 import edu.kit.informatik.util.Checks;
-import edu.kit.informatik.util.ImmutableCollections;
+import edu.kit.informatik.util.PersistentMap;
+import edu.kit.informatik.util.PersistentSet;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -21,19 +22,27 @@ import java.util.stream.Stream;
 /**
  * A directed graph defined by a set of {@link Vertex vertices} and {@link Edge edges}.
  * <p>
- * This class is immutable.
+ * This class is immutable. Vertices, edges and the edges adjacent to each vertex are kept in
+ * {@link PersistentSet persistent sets} and {@link PersistentMap maps}, so an {@link #update(Set) updated} graph
+ * shares all unchanged structure with the graph it is based on.
  *
  * @author JohnnyJayJay
  * @version 1.0.0
  */
 public final class Graph {
 
-    private final Set<Vertex> vertices;
-    private final Set<Edge> edges;
+    private final PersistentSet<Vertex> vertices;
+    private final PersistentSet<Edge> edges;
+    private final PersistentMap<Vertex, PersistentSet<Edge>> outgoingEdges;
+    private final PersistentMap<Vertex, PersistentSet<Edge>> incomingEdges;
 
-    private Graph(Set<Vertex> vertices, Set<Edge> edges) {
+    private Graph(PersistentSet<Vertex> vertices, PersistentSet<Edge> edges,
+                  PersistentMap<Vertex, PersistentSet<Edge>> outgoingEdges,
+                  PersistentMap<Vertex, PersistentSet<Edge>> incomingEdges) {
         this.vertices = vertices;
         this.edges = edges;
+        this.outgoingEdges = outgoingEdges;
+        this.incomingEdges = incomingEdges;
     }
 
     /**
@@ -59,7 +68,54 @@ public final class Graph {
                         .map(Edge::asList)
                         .allMatch(vertices::containsAll),
                 "Edges reference vertices that are not part of the graph");
-        return new Graph(Set.copyOf(vertices), Set.copyOf(edges));
+        return new Graph(PersistentSet.copyOf(vertices), PersistentSet.copyOf(edges),
+                indexEdges(vertices, edges, Edge::getFrom), indexEdges(vertices, edges, Edge::getTo));
+    }
+
+    /**
+     * Creates a graph from collections that have already been validated, without validating them.
+     * <p>
+     * The caller must guarantee that the collections are consistent.
+     *
+     * @param vertices      The vertices of the graph.
+     * @param edges         The edges of the graph.
+     * @param outgoingEdges The edges starting from each vertex.
+     * @param incomingEdges The edges ending at each vertex.
+     * @return the new graph.
+     * @see NetworkBuilder
+     */
+    static Graph ofValidated(PersistentSet<Vertex> vertices, PersistentSet<Edge> edges,
+                             PersistentMap<Vertex, PersistentSet<Edge>> outgoingEdges,
+                             PersistentMap<Vertex, PersistentSet<Edge>> incomingEdges) {
+        return new Graph(vertices, edges, outgoingEdges, incomingEdges);
+    }
+
+    private static PersistentMap<Vertex, PersistentSet<Edge>> indexEdges(Set<Vertex> vertices, Set<Edge> edges,
+                                                                         Function<Edge, Vertex> side) {
+        Map<Vertex, Set<Edge>> index = new HashMap<>(vertices.size());
+        for (Vertex vertex : vertices) {
+            index.put(vertex, new HashSet<>());
+        }
+        for (Edge edge : edges) {
+            index.get(side.apply(edge)).add(edge);
+        }
+        return PersistentMap.copyOf(index.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, (entry) -> PersistentSet.copyOf(entry.getValue()))));
+    }
+
+    private static PersistentMap<Vertex, PersistentSet<Edge>> updateIndex(
+            PersistentMap<Vertex, PersistentSet<Edge>> index, Set<Edge> edges, Function<Edge, Vertex> side) {
+        PersistentMap<Vertex, PersistentSet<Edge>> updated = index;
+        for (Edge edge : edges) {
+            for (Vertex vertex : edge.asList()) {
+                if (!updated.containsKey(vertex)) {
+                    updated = updated.plus(vertex, PersistentSet.empty());
+                }
+            }
+            Vertex vertex = side.apply(edge);
+            updated = updated.plus(vertex, updated.get(vertex).plus(edge));
+        }
+        return updated;
     }
 
     /**
@@ -103,6 +159,8 @@ public final class Graph {
     /**
      * Returns a graph of the vertices and edges in this graph
      * + the vertices in the given edge + the given edge.
+     * <p>
+     * All unchanged structure of this graph is shared, only the entries of the edge's vertices are replaced.
      *
      * @param edge The edge to add. Must not be {@code null}.
      * @return a new graph based on this graph containing the new edge and the vertices in this edge.
@@ -110,45 +168,71 @@ public final class Graph {
      */
     public Graph update(Edge edge) {
         Checks.notNull(edge, "Edge");
-        return contains(edge) ? this : Graph.create(
-                ImmutableCollections.union(vertices, Set.copyOf(edge.asList())),
-                ImmutableCollections.union(edges, Set.of(edge))
+        return update(Set.of(edge));
+    }
+
+    /**
+     * Returns a graph of the vertices and edges in this graph
+     * + the vertices in the given edges + the given edges.
+     * <p>
+     * All unchanged structure of this graph is shared, only the entries of the edges' vertices are replaced.
+     * This takes {@code O(k log n)} time and memory for {@code k} new edges in a graph of {@code n} edges.
+     *
+     * @param newEdges The edges to add. Must not be or contain {@code null}.
+     * @return a new graph based on this graph containing the new edges and their vertices.
+     * @throws NullPointerException     if the set of edges is {@code null}.
+     * @throws IllegalArgumentException if the set of edges contains {@code null}.
+     */
+    public Graph update(Set<Edge> newEdges) {
+        Checks.notNull(newEdges, "Edges");
+        Set<Edge> added = new HashSet<>();
+        Set<Vertex> addedVertices = new HashSet<>();
+        for (Edge edge : newEdges) {
+            Checks.argument(edge != null, "Edges contain null values");
+            if (!contains(edge)) {
+                added.add(edge);
+                addedVertices.addAll(edge.asList());
+            }
+        }
+        return added.isEmpty() ? this : new Graph(
+                vertices.plusAll(addedVertices),
+                edges.plusAll(added),
+                updateIndex(outgoingEdges, added, Edge::getFrom),
+                updateIndex(incomingEdges, added, Edge::getTo)
         );
     }
 
-    private Stream<Edge> streamAdjacentEdges(Vertex vertex, Function<Edge, Vertex> side) {
+    private Set<Edge> getAdjacentEdges(Vertex vertex, Map<Vertex, PersistentSet<Edge>> index) {
         Checks.notNull(vertex, "Vertex");
-        Checks.argument(contains(vertex), "Graph does not contain vertex");
-        return edges.stream()
-                .filter((e) -> side.apply(e).equals(vertex));
+        Set<Edge> adjacent = index.get(vertex);
+        Checks.argument(adjacent != null, "Graph does not contain vertex");
+        return adjacent;
     }
 
     /**
      * Returns the set of edges that start from the given vertex.
      *
      * @param vertex The vertex to find adjacent edges of. Must not be {@code null} and must be part of this graph.
-     * @return The set of edges that connect the given vertex to another vertex and
+     * @return The immutable set of edges that connect the given vertex to another vertex and
      * thus the empty set if no such edge exists.
      * @throws NullPointerException     if the vertex is {@code null}.
      * @throws IllegalArgumentException if the vertex is not part of this graph.
      */
     public Set<Edge> getOutgoingEdges(Vertex vertex) {
-        return streamAdjacentEdges(vertex, Edge::getFrom)
-                .collect(Collectors.toSet());
+        return getAdjacentEdges(vertex, outgoingEdges);
     }
 
     /**
      * Returns the set of edges that end at the given vertex.
      *
      * @param vertex The vertex to find adjacent edges of. Must not be {@code null} and must be part of this graph.
-     * @return The set of edges that connect another vertex to the given vertex and
+     * @return The immutable set of edges that connect another vertex to the given vertex and
      * thus the empty set if no such edge exists.
      * @throws NullPointerException     if the vertex is {@code null}.
      * @throws IllegalArgumentException if the vertex is not part of this graph.
      */
     public Set<Edge> getIncomingEdges(Vertex vertex) {
-        return streamAdjacentEdges(vertex, Edge::getTo)
-                .collect(Collectors.toSet());
+        return getAdjacentEdges(vertex, incomingEdges);
     }
 
     /**
@@ -203,15 +287,13 @@ public final class Graph {
                 Collections.reverse(backtrack);
                 return Optional.of(Path.fromVertices(backtrack));
             } else {
-                streamAdjacentEdges(current, Edge::getFrom)
-                        .filter((e) -> !encountered.contains(e.getTo()))
-                        .forEach((e) -> {
-                            Vertex next = e.getTo();
-                            Vertex parent = e.getFrom();
-                            queue.offer(next);
-                            encountered.add(next);
-                            parents.put(next, parent);
-                        });
+                for (Edge edge : outgoingEdges.get(current)) {
+                    Vertex next = edge.getTo();
+                    if (encountered.add(next)) {
+                        queue.offer(next);
+                        parents.put(next, current);
+                    }
+                }
             }
         }
 
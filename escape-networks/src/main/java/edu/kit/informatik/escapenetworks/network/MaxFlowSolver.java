@@ -0,0 +1,36 @@
+package edu.kit.informatik.escapenetworks.network;
+
+/**
+ * A strategy to compute the maximum flow through a {@link Network}.
+ * <p>
+ * Implementations must be stateless or at least thread safe, as the same solver
+ * may be used for several computations at the same time.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see FlowAlgorithm
+ * @see SolverRegistry
+ */
+public interface MaxFlowSolver {
+
+    /**
+     * Returns the name this solver is registered and selected by.
+     *
+     * @return The name, consisting of lower case letters and dashes.
+     */
+    String getName();
+
+    /**
+     * Calculates the maximum possible flow to put on the given network,
+     * starting from the source vertex and ending on the sink vertex.
+     *
+     * @param network The network to calculate the flow for.
+     * @param source  The vertex where the flow starts.
+     * @param sink    The vertex where the flow ends.
+     * @return The maximum flow found from {@code source} to {@code sink} in {@code network}.
+     * @throws NullPointerException     if one of the arguments is {@code null}.
+     * @throws IllegalArgumentException if the given source/sink vertex is not a valid source/sink in the network.
+     */
+    long computeMaxFlow(Network network, Vertex source, Vertex sink);
+
+}
@@ -1,10 +1,13 @@
 package edu.kit.informatik.escapenetworks.network;
 
 import edu.kit.informatik.util.Checks;
-import edu.kit.informatik.util.ImmutableCollections;
+import edu.kit.informatik.util.PersistentMap;
+import edu.kit.informatik.util.PersistentSet;
 
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * A network defined by a {@link Graph graph} and a capacities map, assigning
@@ -17,6 +20,9 @@ import java.util.Objects;
  * <br>
  * Furthermore, all capacities are non-negative.
  * <p>
+ * The valid sources and sinks are kept in sets that are adjusted on every {@link #update(Map) update}, so checking
+ * whether a vertex is a valid source or sink does not depend on the size of the network.
+ * <p>
  * This class is immutable.
  *
  * @author JohnnyJayJay
@@ -25,11 +31,19 @@ import java.util.Objects;
 public final class Network {
 
     private final Graph graph;
-    private final Map<Edge, Integer> capacities;
+    private final PersistentMap<Edge, Integer> capacities;
+    private final PersistentSet<Vertex> sources;
+    private final PersistentSet<Vertex> sinks;
+    private final long contentHash;
+    private volatile CompiledNetwork compiled;
 
-    private Network(Graph graph, Map<Edge, Integer> capacities) {
+    private Network(Graph graph, PersistentMap<Edge, Integer> capacities,
+                    PersistentSet<Vertex> sources, PersistentSet<Vertex> sinks, long contentHash) {
         this.graph = graph;
         this.capacities = capacities;
+        this.sources = sources;
+        this.sinks = sinks;
+        this.contentHash = contentHash;
     }
 
     /**
@@ -53,16 +67,59 @@ public final class Network {
         Checks.notNull(graph, "Graph");
         Checks.argument(graph.getEdges().stream().map(Edge::reverse).noneMatch(graph::contains),
                 "Graph contains parallel edges");
-        Checks.argument(graph.getClosedVertices().size() < graph.getVertices().size(),
-                "Graph does not contain a valid source");
-        Checks.argument(graph.getOpenVertices().size() < graph.getVertices().size(),
-                "Graph does not contain a valid sink");
+        Set<Vertex> sources = new HashSet<>();
+        Set<Vertex> sinks = new HashSet<>();
+        for (Vertex vertex : graph.getVertices()) {
+            if (graph.getIncomingEdges(vertex).isEmpty()) {
+                sources.add(vertex);
+            }
+            if (graph.getOutgoingEdges(vertex).isEmpty()) {
+                sinks.add(vertex);
+            }
+        }
+        Checks.argument(!sources.isEmpty(), "Graph does not contain a valid source");
+        Checks.argument(!sinks.isEmpty(), "Graph does not contain a valid sink");
         Checks.notNull(capacities, "Capacities map");
         Checks.argument(graph.getEdges().equals(capacities.keySet()),
                 "Capacities map does not match edges in graph");
         Checks.argument(capacities.values().stream().allMatch((c) -> c >= 0),
                 "Capacities must be non-negative");
-        return new Network(graph, Map.copyOf(capacities));
+        return new Network(graph, PersistentMap.copyOf(capacities),
+                PersistentSet.copyOf(sources), PersistentSet.copyOf(sinks), contentHash(capacities));
+    }
+
+    /**
+     * Creates a network from a graph and capacities that have already been validated, without validating them.
+     * <p>
+     * The caller must guarantee that the capacities match the graph.
+     *
+     * @param graph       The underlying graph of the network.
+     * @param capacities  A map assigning each edge a non-negative capacity.
+     * @param sources     The vertices without incoming edges.
+     * @param sinks       The vertices without outgoing edges.
+     * @return The network object.
+     * @see NetworkBuilder
+     */
+    static Network ofValidated(Graph graph, PersistentMap<Edge, Integer> capacities,
+                               PersistentSet<Vertex> sources, PersistentSet<Vertex> sinks) {
+        return new Network(graph, capacities, sources, sinks, contentHash(capacities));
+    }
+
+    private static long contentHash(Map<Edge, Integer> capacities) {
+        long hash = 0;
+        for (Map.Entry<Edge, Integer> section : capacities.entrySet()) {
+            hash += sectionHash(section.getKey(), section.getValue());
+        }
+        return hash;
+    }
+
+    private static long sectionHash(Edge edge, int capacity) {
+        // the finalizer of SplitMix64 spreads the identifiers and the capacity over all bits
+        long hash = ((long) edge.getFrom().hashCode() << Integer.SIZE | (edge.getTo().hashCode() & 0xFFFFFFFFL))
+                ^ capacity * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
     }
 
     /**
@@ -71,19 +128,70 @@ public final class Network {
      * <p>
      * This will update the capacity of the given edge even if it already exists in the graph.
      * <p>
-     * See {@link Network#create(Graph, Map)} for possible exceptions.
+     * See {@link Network#update(Map)} for possible exceptions.
      *
      * @param edge     The edge to add to the network.
      * @param capacity The capacity of that edge.
      * @return A new network with the given changes.
      * @see Graph#update(Edge)
-     * @see Network#create(Graph, Map)
+     * @see Network#update(Map)
      */
     public Network update(Edge edge, int capacity) {
-        return Network.create(
-                graph.update(edge),
-                ImmutableCollections.merge(capacities, Map.of(edge, capacity))
-        );
+        Checks.notNull(edge, "Edge");
+        return update(Map.of(edge, capacity));
+    }
+
+    /**
+     * Creates a new network based on this one, with the given edges and their capacities added to
+     * the underlying graph/the capacities map.
+     * <p>
+     * This will update the capacities of edges that already exist in the graph.
+     * Only the given edges and their vertices are validated, so the cost of the validation does not depend on the
+     * size of this network. The new network shares all unchanged structure with this one.
+     * The result is the same as that of {@link Network#create(Graph, Map)} with all edges.
+     *
+     * @param sections The edges to add and their capacities.
+     * @return A new network with the given changes.
+     * @throws NullPointerException     if the map is {@code null}.
+     * @throws IllegalArgumentException if
+     *                                  <ul>
+     *                                      <li>The map contains {@code null} keys or values</li>
+     *                                      <li>The resulting graph would contain parallel edges</li>
+     *                                      <li>The resulting graph would not contain a valid source/sink vertex</li>
+     *                                      <li>Any capacity is negative</li>
+     *                                  </ul>
+     * @see Graph#update(Set)
+     */
+    public Network update(Map<Edge, Integer> sections) {
+        Checks.notNull(sections, "Sections");
+        Set<Vertex> affected = new HashSet<>();
+        long updatedHash = contentHash;
+        for (Map.Entry<Edge, Integer> section : sections.entrySet()) {
+            Edge edge = section.getKey();
+            Checks.argument(edge != null && section.getValue() != null, "Sections contain null values");
+            Checks.argument(!edge.isLoop() && !graph.contains(edge.reverse())
+                            && !sections.containsKey(edge.reverse()),
+                    "Graph contains parallel edges");
+            affected.addAll(edge.asList());
+            Integer previous = capacities.get(edge);
+            updatedHash += sectionHash(edge, section.getValue()) - (previous == null ? 0 : sectionHash(edge, previous));
+        }
+        Graph updatedGraph = graph.update(sections.keySet());
+        PersistentSet<Vertex> updatedSources = sources;
+        PersistentSet<Vertex> updatedSinks = sinks;
+        for (Vertex vertex : affected) {
+            updatedSources = updatedGraph.getIncomingEdges(vertex).isEmpty()
+                    ? updatedSources.plus(vertex)
+                    : updatedSources.minus(vertex);
+            updatedSinks = updatedGraph.getOutgoingEdges(vertex).isEmpty()
+                    ? updatedSinks.plus(vertex)
+                    : updatedSinks.minus(vertex);
+        }
+        Checks.argument(!updatedSources.isEmpty(), "Graph does not contain a valid source");
+        Checks.argument(!updatedSinks.isEmpty(), "Graph does not contain a valid sink");
+        Checks.argument(sections.values().stream().allMatch((c) -> c >= 0),
+                "Capacities must be non-negative");
+        return new Network(updatedGraph, capacities.plusAll(sections), updatedSources, updatedSinks, updatedHash);
     }
 
     /**
@@ -107,6 +215,22 @@ public final class Network {
         return capacities.get(edge);
     }
 
+    /**
+     * Returns the compact representation of this network used for flow computations.
+     * <p>
+     * The representation is created on first use and then kept for the lifetime of this network.
+     *
+     * @return The compiled network.
+     */
+    CompiledNetwork compile() {
+        CompiledNetwork result = compiled;
+        if (result == null) {
+            result = CompiledNetwork.compile(this);
+            compiled = result;
+        }
+        return result;
+    }
+
     /**
      * Returns whether the given vertex is a valid source in this network,
      * i.e. whether it has no incoming edges.
@@ -116,7 +240,7 @@ public final class Network {
      * @throws IllegalArgumentException if the vertex is not part of this network.
      */
     public boolean isValidSource(Vertex vertex) {
-        return graph.getIncomingEdges(vertex).isEmpty();
+        return sources.contains(checkContains(vertex));
     }
 
     /**
@@ -128,7 +252,44 @@ public final class Network {
      * @throws IllegalArgumentException if the vertex is not part of this network.
      */
     public boolean isValidSink(Vertex vertex) {
-        return graph.getOutgoingEdges(vertex).isEmpty();
+        return sinks.contains(checkContains(vertex));
+    }
+
+    private Vertex checkContains(Vertex vertex) {
+        Checks.notNull(vertex, "Vertex");
+        Checks.argument(graph.contains(vertex), "Graph does not contain vertex");
+        return vertex;
+    }
+
+    /**
+     * Returns the valid sources of this network, i.e. the vertices without incoming edges.
+     *
+     * @return The immutable, non-empty set of sources.
+     */
+    public Set<Vertex> getSources() {
+        return sources;
+    }
+
+    /**
+     * Returns the valid sinks of this network, i.e. the vertices without outgoing edges.
+     *
+     * @return The immutable, non-empty set of sinks.
+     */
+    public Set<Vertex> getSinks() {
+        return sinks;
+    }
+
+    /**
+     * Returns a hash of the sections of this network and their capacities.
+     * <p>
+     * The hash only depends on the identifiers of the vertices and the capacities, so it is the same for equal
+     * networks, even across different runs of the program. It is maintained on every {@link #update(Map) update}
+     * by only hashing the changed sections.
+     *
+     * @return The content hash.
+     */
+    public long getContentHash() {
+        return contentHash;
     }
 
     @Override
@@ -140,13 +301,14 @@ public final class Network {
             return false;
         }
         Network network = (Network) o;
-        return Objects.equals(graph, network.graph)
-                && Objects.equals(capacities, network.capacities);
+        return contentHash == network.contentHash
+                && Objects.equals(capacities, network.capacities)
+                && Objects.equals(graph, network.graph);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(graph, capacities);
+        return Long.hashCode(contentHash);
     }
 
     @Override
@@ -0,0 +1,283 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import edu.kit.informatik.util.Checks;
+import edu.kit.informatik.util.PersistentMap;
+import edu.kit.informatik.util.PersistentSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A builder that collects edges and their capacities one by one and turns them into a {@link Network}.
+ * <p>
+ * Unlike {@link Network#create(Graph, Map)}, which validates complete collections, the builder validates
+ * each edge as it is added and only turns its collections into the persistent collections of the network once,
+ * in a single bulk update per collection. This makes it suitable for networks that are read from large inputs.
+ * Parallel edges and missing sources or sinks are reported by {@link #build()}, with the same messages as
+ * {@link Network#create(Graph, Map)}.
+ * <p>
+ * A builder can only build a single network. Networks whose sections are already known as indices into an array
+ * of vertices, e.g. because they are decoded from a binary file, are created without a builder instance by
+ * {@link #fromIndices(Vertex[], int[], int[], int[])}.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public final class NetworkBuilder {
+
+    private Map<Vertex, Set<Edge>> outgoingEdges;
+    private Map<Vertex, Set<Edge>> incomingEdges;
+    private Map<Edge, Integer> capacities;
+    private int parallelEdges;
+
+    private NetworkBuilder() {
+        this.outgoingEdges = new HashMap<>();
+        this.incomingEdges = new HashMap<>();
+        this.capacities = new HashMap<>();
+    }
+
+    /**
+     * Creates a new builder without any edges.
+     *
+     * @return The builder.
+     */
+    public static NetworkBuilder create() {
+        return new NetworkBuilder();
+    }
+
+    /**
+     * Creates a network from sections whose vertices are given by their indices in an array of vertices.
+     * <p>
+     * The sections are validated on their indices, without hashing any vertex or edge, and every collection of the
+     * network is built in a single step. This takes time linear in the number of vertices and sections, except for
+     * sorting the sections. Vertices that are not part of any section are not part of the network.
+     *
+     * @param vertices   The vertices the indices refer to. Must not contain equal vertices.
+     * @param from       The index of the vertex each section starts from.
+     * @param to         The index of the vertex each section ends on.
+     * @param capacities The capacity of each section.
+     * @return The network.
+     * @throws NullPointerException     if one of the arrays or a vertex of a section is {@code null}.
+     * @throws IllegalArgumentException if the arrays of the sections differ in length, an index is out of range,
+     *                                  the vertices of the sections are not distinct, a section occurs twice,
+     *                                  a capacity is negative, the network contains parallel edges or does not
+     *                                  contain a valid source or sink vertex.
+     * @see #build()
+     */
+    public static Network fromIndices(Vertex[] vertices, int[] from, int[] to, int[] capacities) {
+        Checks.notNull(vertices, "Vertices");
+        Checks.notNull(from, "From indices");
+        Checks.notNull(to, "To indices");
+        Checks.notNull(capacities, "Capacities");
+        Checks.argument(to.length == from.length && capacities.length == from.length,
+                "Section arrays differ in length");
+        int[] outDegrees = new int[vertices.length];
+        int[] inDegrees = new int[vertices.length];
+        for (int i = 0; i < from.length; i++) {
+            Checks.argument(from[i] >= 0 && from[i] < vertices.length && to[i] >= 0 && to[i] < vertices.length,
+                    "Vertex index out of range");
+            Checks.argument(capacities[i] >= 0, "Capacities must be non-negative");
+            outDegrees[from[i]]++;
+            inDegrees[to[i]]++;
+        }
+        validateSections(vertices, from, to, outDegrees);
+
+        Edge[] edges = new Edge[from.length];
+        Integer[] boxedCapacities = new Integer[from.length];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = Edge.create(vertices[from[i]], vertices[to[i]]);
+            boxedCapacities[i] = capacities[i];
+        }
+        boolean[] contained = new boolean[vertices.length];
+        List<Vertex> used = new ArrayList<>();
+        List<Vertex> sources = new ArrayList<>();
+        List<Vertex> sinks = new ArrayList<>();
+        for (int i = 0; i < vertices.length; i++) {
+            if (outDegrees[i] + inDegrees[i] > 0) {
+                contained[i] = true;
+                used.add(vertices[i]);
+                addIf(inDegrees[i] == 0, vertices[i], sources);
+                addIf(outDegrees[i] == 0, vertices[i], sinks);
+            }
+        }
+        PersistentSet<Vertex> vertexSet = PersistentSet.copyOf(used);
+        Checks.argument(vertexSet.size() == used.size(), "Vertices of the sections must be distinct");
+        Checks.argument(!sources.isEmpty(), "Graph does not contain a valid source");
+        Checks.argument(!sinks.isEmpty(), "Graph does not contain a valid sink");
+        PersistentMap<Edge, Integer> capacityMap = PersistentMap.copyOf(Arrays.asList(edges),
+                Arrays.asList(boxedCapacities));
+        Graph graph = Graph.ofValidated(vertexSet, capacityMap.keySet(),
+                index(vertices, contained, edges, from, outDegrees), index(vertices, contained, edges, to, inDegrees));
+        return Network.ofValidated(graph, capacityMap, PersistentSet.copyOf(sources), PersistentSet.copyOf(sinks));
+    }
+
+    private static void validateSections(Vertex[] vertices, int[] from, int[] to, int[] outDegrees) {
+        // the targets of the sections starting from each vertex form a sorted range, which reveals duplicates
+        // as neighbours and is searched for the reverse of a section
+        int[] offsets = offsets(outDegrees);
+        int[] targets = new int[to.length];
+        int[] next = Arrays.copyOf(offsets, vertices.length);
+        for (int i = 0; i < from.length; i++) {
+            targets[next[from[i]]++] = to[i];
+        }
+        long duplicate = -1;
+        for (int source = 0; source < vertices.length; source++) {
+            Arrays.sort(targets, offsets[source], offsets[source + 1]);
+            for (int i = offsets[source] + 1; i < offsets[source + 1]; i++) {
+                if (duplicate < 0 && targets[i] == targets[i - 1]) {
+                    duplicate = (long) source << Integer.SIZE | targets[i];
+                }
+            }
+        }
+        long section = duplicate;
+        Checks.validate(section < 0, () -> new IllegalArgumentException("Network already contains edge "
+                + Edge.create(vertices[(int) (section >>> Integer.SIZE)], vertices[(int) section])));
+        for (int i = 0; i < from.length; i++) {
+            Checks.argument(from[i] != to[i] && Arrays.binarySearch(targets, offsets[to[i]], offsets[to[i] + 1],
+                    from[i]) < 0, "Graph contains parallel edges");
+        }
+    }
+
+    private static int[] offsets(int[] degrees) {
+        int[] offsets = new int[degrees.length + 1];
+        for (int i = 0; i < degrees.length; i++) {
+            offsets[i + 1] = offsets[i] + degrees[i];
+        }
+        return offsets;
+    }
+
+    private static void addIf(boolean condition, Vertex vertex, List<Vertex> vertices) {
+        if (condition) {
+            vertices.add(vertex);
+        }
+    }
+
+    private static PersistentMap<Vertex, PersistentSet<Edge>> index(Vertex[] vertices, boolean[] contained,
+                                                                   Edge[] edges, int[] side, int[] degrees) {
+        // group the edges by the vertex on the given side, like the arcs of a compressed sparse row graph
+        int[] offsets = offsets(degrees);
+        Edge[] grouped = new Edge[edges.length];
+        int[] next = Arrays.copyOf(offsets, vertices.length);
+        for (int i = 0; i < edges.length; i++) {
+            grouped[next[side[i]]++] = edges[i];
+        }
+        List<Vertex> keys = new ArrayList<>();
+        List<PersistentSet<Edge>> values = new ArrayList<>();
+        List<Edge> groups = Arrays.asList(grouped);
+        for (int i = 0; i < vertices.length; i++) {
+            if (contained[i]) {
+                keys.add(vertices[i]);
+                values.add(PersistentSet.copyOf(groups.subList(offsets[i], offsets[i + 1])));
+            }
+        }
+        return PersistentMap.copyOf(keys, values);
+    }
+
+    /**
+     * Adds an edge with the given capacity to the network. The vertices of the edge are added as well.
+     *
+     * @param edge     The edge to add.
+     * @param capacity The capacity of the edge.
+     * @return This builder.
+     * @throws NullPointerException     if the edge is {@code null}.
+     * @throws IllegalArgumentException if the edge has already been added or the capacity is negative.
+     * @throws IllegalStateException    if the network has already been built.
+     */
+    public NetworkBuilder add(Edge edge, int capacity) {
+        Checks.notNull(edge, "Edge");
+        checkNotBuilt();
+        Checks.argument(capacity >= 0, "Capacities must be non-negative");
+        Checks.argument(!capacities.containsKey(edge), "Network already contains edge " + edge);
+        if (edge.isLoop() || capacities.containsKey(edge.reverse())) {
+            parallelEdges++;
+        }
+        capacities.put(edge, capacity);
+        addAdjacentEdge(edge.getFrom(), edge, outgoingEdges);
+        addAdjacentEdge(edge.getTo(), edge, incomingEdges);
+        addAdjacentEdge(edge.getFrom(), null, incomingEdges);
+        addAdjacentEdge(edge.getTo(), null, outgoingEdges);
+        return this;
+    }
+
+    private static void addAdjacentEdge(Vertex vertex, Edge edge, Map<Vertex, Set<Edge>> index) {
+        Set<Edge> adjacent = index.computeIfAbsent(vertex, (v) -> new HashSet<>());
+        if (edge != null) {
+            adjacent.add(edge);
+        }
+    }
+
+    /**
+     * Returns whether the given edge has been added to this builder.
+     *
+     * @param edge The edge to look for.
+     * @return {@code true} if the edge has been added, {@code false} if not.
+     */
+    public boolean contains(Edge edge) {
+        checkNotBuilt();
+        return capacities.containsKey(edge);
+    }
+
+    /**
+     * Returns the number of edges added so far.
+     *
+     * @return The edge count.
+     */
+    public int getEdgeCount() {
+        checkNotBuilt();
+        return capacities.size();
+    }
+
+    /**
+     * Creates the network of all edges added to this builder.
+     *
+     * @return The network.
+     * @throws IllegalArgumentException if the network contains parallel edges or does not contain a valid
+     *                                  source or sink vertex.
+     * @throws IllegalStateException    if the network has already been built.
+     * @see Network#create(Graph, Map)
+     */
+    public Network build() {
+        checkNotBuilt();
+        Checks.argument(parallelEdges == 0, "Graph contains parallel edges");
+        PersistentSet<Vertex> sources = withoutEdges(incomingEdges);
+        PersistentSet<Vertex> sinks = withoutEdges(outgoingEdges);
+        Checks.argument(!sources.isEmpty(), "Graph does not contain a valid source");
+        Checks.argument(!sinks.isEmpty(), "Graph does not contain a valid sink");
+        PersistentMap<Edge, Integer> capacityMap = PersistentMap.copyOf(capacities);
+        Graph graph = Graph.ofValidated(
+                PersistentSet.copyOf(outgoingEdges.keySet()),
+                capacityMap.keySet(),
+                freeze(outgoingEdges),
+                freeze(incomingEdges));
+        Network network = Network.ofValidated(graph, capacityMap, sources, sinks);
+        outgoingEdges = null;
+        incomingEdges = null;
+        capacities = null;
+        return network;
+    }
+
+    private static PersistentSet<Vertex> withoutEdges(Map<Vertex, Set<Edge>> index) {
+        Set<Vertex> vertices = new HashSet<>();
+        index.forEach((vertex, adjacent) -> {
+            if (adjacent.isEmpty()) {
+                vertices.add(vertex);
+            }
+        });
+        return PersistentSet.copyOf(vertices);
+    }
+
+    private static PersistentMap<Vertex, PersistentSet<Edge>> freeze(Map<Vertex, Set<Edge>> index) {
+        Map<Vertex, PersistentSet<Edge>> frozen = new HashMap<>(index.size() * 2);
+        index.forEach((vertex, adjacent) -> frozen.put(vertex, PersistentSet.copyOf(adjacent)));
+        return PersistentMap.copyOf(frozen);
+    }
+
+    private void checkNotBuilt() {
+        Checks.validate(capacities != null, () -> new IllegalStateException("Network has already been built"));
+    }
+}
@@ -0,0 +1,167 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reduces a {@link CompiledNetwork} before a flow is computed on it by contracting chains and combining
+ * parallel routes.
+ * <p>
+ * A chain is a sequence of vertices other than the source and the sink that have exactly one incoming and
+ * one outgoing edge, like the vertices of a long corridor. All flow through a chain passes every one of its edges,
+ * so the chain is replaced by a single arc whose capacity is the minimum capacity in the chain.
+ * If this creates a second arc between the same two vertices, both are combined into one arc with the sum of
+ * their capacities, which may turn the two vertices into parts of a chain again.
+ * Chains that lead back to the vertex they started from cannot carry any flow from the source to the sink and are
+ * removed.
+ * <p>
+ * Every arc of the reduced network is backed by a {@link Route} that maps cuts and flows back to the edges
+ * of the original network.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see Flow
+ */
+final class NetworkReduction {
+
+    private static final int MIN_CHAIN_VERTEX_SHARE = 8;
+
+    private final CompiledNetwork network;
+    private final int source;
+    private final int sink;
+    private final List<List<Route>> outgoing;
+    private final List<List<Route>> incoming;
+    private final boolean[] removed;
+    private final Deque<Integer> candidates;
+
+    private NetworkReduction(CompiledNetwork network, int source, int sink) {
+        this.network = network;
+        this.source = source;
+        this.sink = sink;
+        int vertexCount = network.getVertexCount();
+        this.outgoing = new ArrayList<>(vertexCount);
+        this.incoming = new ArrayList<>(vertexCount);
+        this.removed = new boolean[vertexCount];
+        this.candidates = new ArrayDeque<>();
+    }
+
+    /**
+     * Reduces the given network for a flow from a source to a sink.
+     *
+     * @param network The network to reduce.
+     * @param source  The index of the source.
+     * @param sink    The index of the sink.
+     * @return The reduced network or the given network if there are too few chains to make the reduction worthwhile.
+     */
+    static CompiledNetwork reduce(CompiledNetwork network, int source, int sink) {
+        int chainVertices = 0;
+        for (int vertex = 0; vertex < network.getVertexCount(); vertex++) {
+            chainVertices += isChainVertex(network, vertex) && vertex != source && vertex != sink ? 1 : 0;
+        }
+        if (chainVertices == 0 || chainVertices < network.getVertexCount() / MIN_CHAIN_VERTEX_SHARE) {
+            return network;
+        }
+        NetworkReduction reduction = new NetworkReduction(network, source, sink);
+        reduction.contractChains();
+        return reduction.build();
+    }
+
+    private static boolean isChainVertex(CompiledNetwork network, int vertex) {
+        int in = 0;
+        int out = 0;
+        for (int arc = network.firstArc(vertex); arc < network.endArc(vertex); arc++) {
+            if (network.isForward(arc)) {
+                out++;
+            } else {
+                in++;
+            }
+        }
+        return in == 1 && out == 1;
+    }
+
+    private void contractChains() {
+        for (int vertex = 0; vertex < network.getVertexCount(); vertex++) {
+            outgoing.add(new ArrayList<>(2));
+            incoming.add(new ArrayList<>(2));
+        }
+        for (int vertex = 0; vertex < network.getVertexCount(); vertex++) {
+            for (int arc = network.firstArc(vertex); arc < network.endArc(vertex); arc++) {
+                if (network.isForward(arc)) {
+                    Route route = Route.of(network.getEdge(arc), network.getCapacity(arc));
+                    outgoing.get(vertex).add(route);
+                    incoming.get(network.getTarget(arc)).add(route);
+                }
+            }
+            candidates.add(vertex);
+        }
+        while (!candidates.isEmpty()) {
+            int vertex = candidates.poll();
+            if (!removed[vertex] && isInner(vertex)) {
+                contractChain(vertex);
+            }
+        }
+    }
+
+    private boolean isInner(int vertex) {
+        return vertex != source && vertex != sink
+                && incoming.get(vertex).size() == 1 && outgoing.get(vertex).size() == 1;
+    }
+
+    private void contractChain(int vertex) {
+        // walk back to the vertex the chain starts from
+        Route first = incoming.get(vertex).get(0);
+        int start = network.indexOf(first.getFrom());
+        while (isInner(start)) {
+            if (start == vertex) {
+                return;
+            }
+            first = incoming.get(start).get(0);
+            start = network.indexOf(first.getFrom());
+        }
+        List<Route> parts = new ArrayList<>();
+        Route last = first;
+        int end = network.indexOf(last.getTo());
+        parts.add(last);
+        while (isInner(end)) {
+            removed[end] = true;
+            last = outgoing.get(end).get(0);
+            parts.add(last);
+            end = network.indexOf(last.getTo());
+        }
+        outgoing.get(start).remove(first);
+        incoming.get(end).remove(last);
+        candidates.add(start);
+        candidates.add(end);
+        if (start == end) {
+            return;
+        }
+        Route chain = Route.series(parts);
+        List<Route> startOutgoing = outgoing.get(start);
+        for (int i = 0; i < startOutgoing.size(); i++) {
+            Route existing = startOutgoing.get(i);
+            if (existing.getTo().equals(chain.getTo()) && Route.canCombine(existing, chain)) {
+                Route combined = Route.parallel(existing, chain);
+                startOutgoing.set(i, combined);
+                List<Route> endIncoming = incoming.get(end);
+                endIncoming.set(endIncoming.indexOf(existing), combined);
+                return;
+            }
+        }
+        startOutgoing.add(chain);
+        incoming.get(end).add(chain);
+    }
+
+    private CompiledNetwork build() {
+        List<Vertex> vertices = new ArrayList<>();
+        List<Route> routes = new ArrayList<>();
+        for (int vertex = 0; vertex < network.getVertexCount(); vertex++) {
+            if (!removed[vertex]) {
+                vertices.add(network.getVertex(vertex));
+                routes.addAll(outgoing.get(vertex));
+            }
+        }
+        return CompiledNetwork.reduced(vertices.toArray(new Vertex[0]), routes.toArray(new Route[0]));
+    }
+}
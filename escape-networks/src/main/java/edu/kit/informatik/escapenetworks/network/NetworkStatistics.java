@@ -0,0 +1,115 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import edu.kit.informatik.util.Checks;
+
+/**
+ * Size and capacity figures of a {@link Network} used to choose a suitable {@link MaxFlowSolver}.
+ * <p>
+ * This class is immutable.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see AutomaticSolver#select(NetworkStatistics)
+ */
+public final class NetworkStatistics {
+
+    private final int vertexCount;
+    private final int edgeCount;
+    private final int minCapacity;
+    private final int maxCapacity;
+
+    private NetworkStatistics(int vertexCount, int edgeCount, int minCapacity, int maxCapacity) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.minCapacity = minCapacity;
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * Collects the statistics of the given network.
+     *
+     * @param network The network to collect statistics for. Must not be {@code null}.
+     * @return The statistics.
+     * @throws NullPointerException if the network is {@code null}.
+     */
+    public static NetworkStatistics of(Network network) {
+        Checks.notNull(network, "Network");
+        CompiledNetwork compiled = network.compile();
+        int minCapacity = Integer.MAX_VALUE;
+        int maxCapacity = 0;
+        for (int arc = 0; arc < compiled.getArcCount(); arc++) {
+            if (compiled.isForward(arc)) {
+                minCapacity = Math.min(minCapacity, compiled.getCapacity(arc));
+                maxCapacity = Math.max(maxCapacity, compiled.getCapacity(arc));
+            }
+        }
+        int edgeCount = compiled.getArcCount() / 2;
+        return new NetworkStatistics(compiled.getVertexCount(), edgeCount,
+                edgeCount == 0 ? 0 : minCapacity, maxCapacity);
+    }
+
+    /**
+     * Returns the number of vertices in the network.
+     *
+     * @return The vertex count.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the number of edges in the network.
+     *
+     * @return The edge count.
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the density of the network, i.e. the ratio of its edges to the edges of
+     * a complete directed graph with the same vertices.
+     *
+     * @return The density, between {@code 0} and {@code 1}.
+     */
+    public double getDensity() {
+        return vertexCount < 2 ? 0 : (double) edgeCount / ((double) vertexCount * (vertexCount - 1));
+    }
+
+    /**
+     * Returns the smallest capacity of any edge in the network.
+     *
+     * @return The minimum capacity or {@code 0} if there are no edges.
+     */
+    public int getMinCapacity() {
+        return minCapacity;
+    }
+
+    /**
+     * Returns the largest capacity of any edge in the network.
+     *
+     * @return The maximum capacity or {@code 0} if there are no edges.
+     */
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Returns the ratio of the largest to the smallest capacity in the network.
+     *
+     * @return The capacity range, at least {@code 1}.
+     */
+    public double getCapacityRange() {
+        return minCapacity == 0 ? Math.max(1, maxCapacity) : (double) maxCapacity / minCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkStatistics{"
+                + "vertexCount=" + vertexCount
+                + ", edgeCount=" + edgeCount
+                + ", minCapacity=" + minCapacity
+                + ", maxCapacity=" + maxCapacity
+                + '}';
+    }
+}
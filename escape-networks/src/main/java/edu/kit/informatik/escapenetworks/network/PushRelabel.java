@@ -0,0 +1,233 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import java.util.Arrays;
+
+/**
+ * An implementation of the highest-label
+ * <a href="https://en.wikipedia.org/wiki/Push%E2%80%93relabel_maximum_flow_algorithm">push-relabel</a>
+ * algorithm on a {@link CompiledNetwork}.
+ * <p>
+ * Instead of augmenting paths, this algorithm maintains a preflow and repeatedly discharges the active vertex
+ * with the highest label. It uses the gap heuristic (vertices above an empty label can no longer reach the sink)
+ * and periodically recomputes exact labels with a backwards breadth-first-search (global relabeling).
+ * <p>
+ * The computation runs in two phases: the first phase moves as much excess as possible to the sink,
+ * the second phase returns the remaining excess to the source so that the result is a valid flow.
+ * Both phases use the same discharge loop with the roles of source and sink swapped.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+final class PushRelabel {
+
+    private static final int NONE = -1;
+
+    private final CompiledNetwork network;
+    private final ResidualNetwork residual;
+    private final int vertexCount;
+    private final long[] excess;
+    private final int[] heights;
+    private final int[] currentArcs;
+    private final int[] activeHeads;
+    private final int[] activeNext;
+    private final int[] levelHeads;
+    private final int[] levelNext;
+    private final int[] levelPrevious;
+    private final int[] queue;
+    private int target;
+    private int blocked;
+    private int maxActiveHeight;
+    private int maxHeight;
+    private int relabelCount;
+
+    private PushRelabel(ResidualNetwork residual) {
+        this.network = residual.getNetwork();
+        this.residual = residual;
+        this.vertexCount = network.getVertexCount();
+        this.excess = new long[vertexCount];
+        this.heights = new int[vertexCount];
+        this.currentArcs = new int[vertexCount];
+        this.activeHeads = new int[vertexCount + 1];
+        this.activeNext = new int[vertexCount];
+        this.levelHeads = new int[vertexCount + 1];
+        this.levelNext = new int[vertexCount];
+        this.levelPrevious = new int[vertexCount];
+        this.queue = new int[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            excess[vertex] = residual.getNetInflow(vertex);
+        }
+    }
+
+    /**
+     * Augments the given flow until it is maximal.
+     *
+     * @param residual The residual network of the flow. It is modified in place.
+     * @param source   The index of the source vertex.
+     * @param sink     The index of the sink vertex.
+     */
+    static void maximize(ResidualNetwork residual, int source, int sink) {
+        PushRelabel algorithm = new PushRelabel(residual);
+        algorithm.saturateArcs(source);
+        algorithm.run(sink, source);
+        algorithm.run(source, sink);
+    }
+
+    private void saturateArcs(int vertex) {
+        for (int arc = network.firstArc(vertex); arc < network.endArc(vertex); arc++) {
+            int remaining = residual.getResidualCapacity(arc);
+            if (remaining > 0) {
+                residual.push(arc, remaining);
+                excess[vertex] -= remaining;
+                excess[network.getTarget(arc)] += remaining;
+            }
+        }
+    }
+
+    private void run(int target, int blocked) {
+        this.target = target;
+        this.blocked = blocked;
+        globalRelabel();
+        while (maxActiveHeight >= 0) {
+            int vertex = activeHeads[maxActiveHeight];
+            if (vertex == NONE) {
+                maxActiveHeight--;
+                continue;
+            }
+            activeHeads[maxActiveHeight] = activeNext[vertex];
+            Cancellation.check();
+            // vertices lifted by the gap heuristic leave stale entries behind
+            if (heights[vertex] == maxActiveHeight) {
+                discharge(vertex);
+            }
+            if (relabelCount >= vertexCount) {
+                globalRelabel();
+            }
+        }
+    }
+
+    private void globalRelabel() {
+        relabelCount = 0;
+        Arrays.fill(heights, vertexCount);
+        Arrays.fill(levelHeads, NONE);
+        Arrays.fill(activeHeads, NONE);
+        maxActiveHeight = NONE;
+        maxHeight = 0;
+        heights[target] = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = target;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int arc = network.firstArc(current); arc < network.endArc(current); arc++) {
+                int previous = network.getTarget(arc);
+                if (heights[previous] == vertexCount && previous != blocked
+                        && residual.getResidualCapacity(network.getReverseArc(arc)) > 0) {
+                    heights[previous] = heights[current] + 1;
+                    queue[tail++] = previous;
+                }
+            }
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (vertex != target && heights[vertex] < vertexCount) {
+                currentArcs[vertex] = network.firstArc(vertex);
+                addToLevel(vertex);
+                if (excess[vertex] > 0) {
+                    activate(vertex);
+                }
+            }
+        }
+    }
+
+    private void discharge(int vertex) {
+        while (excess[vertex] > 0) {
+            int arc = currentArcs[vertex];
+            if (arc == network.endArc(vertex)) {
+                relabel(vertex);
+                if (heights[vertex] == vertexCount) {
+                    return;
+                }
+                continue;
+            }
+            int next = network.getTarget(arc);
+            int remaining = residual.getResidualCapacity(arc);
+            if (remaining > 0 && heights[vertex] == heights[next] + 1) {
+                int delta = (int) Math.min(excess[vertex], remaining);
+                residual.push(arc, delta);
+                excess[vertex] -= delta;
+                if (excess[next] == 0 && next != target && next != blocked) {
+                    activate(next);
+                }
+                excess[next] += delta;
+            } else {
+                currentArcs[vertex]++;
+            }
+        }
+    }
+
+    private void relabel(int vertex) {
+        relabelCount++;
+        int oldHeight = heights[vertex];
+        removeFromLevel(vertex);
+        int newHeight = vertexCount;
+        int newArc = network.firstArc(vertex);
+        for (int arc = network.firstArc(vertex); arc < network.endArc(vertex); arc++) {
+            int height = heights[network.getTarget(arc)] + 1;
+            if (height < newHeight && residual.getResidualCapacity(arc) > 0) {
+                newHeight = height;
+                newArc = arc;
+            }
+        }
+        if (levelHeads[oldHeight] == NONE) {
+            // gap: neither this vertex nor any vertex above it can reach the target anymore
+            removeLevelsAbove(oldHeight);
+            newHeight = vertexCount;
+        }
+        heights[vertex] = newHeight;
+        currentArcs[vertex] = newArc;
+        if (newHeight < vertexCount) {
+            addToLevel(vertex);
+        }
+    }
+
+    private void removeLevelsAbove(int height) {
+        for (int level = height + 1; level <= maxHeight; level++) {
+            for (int vertex = levelHeads[level]; vertex != NONE; vertex = levelNext[vertex]) {
+                heights[vertex] = vertexCount;
+            }
+            levelHeads[level] = NONE;
+        }
+        maxHeight = height - 1;
+    }
+
+    private void activate(int vertex) {
+        int height = heights[vertex];
+        activeNext[vertex] = activeHeads[height];
+        activeHeads[height] = vertex;
+        maxActiveHeight = Math.max(maxActiveHeight, height);
+    }
+
+    private void addToLevel(int vertex) {
+        int height = heights[vertex];
+        int head = levelHeads[height];
+        levelPrevious[vertex] = NONE;
+        levelNext[vertex] = head;
+        if (head != NONE) {
+            levelPrevious[head] = vertex;
+        }
+        levelHeads[height] = vertex;
+        maxHeight = Math.max(maxHeight, height);
+    }
+
+    private void removeFromLevel(int vertex) {
+        int previous = levelPrevious[vertex];
+        int next = levelNext[vertex];
+        if (previous == NONE) {
+            levelHeads[heights[vertex]] = next;
+        } else {
+            levelNext[previous] = next;
+        }
+        if (next != NONE) {
+            levelPrevious[next] = previous;
+        }
+    }
+}
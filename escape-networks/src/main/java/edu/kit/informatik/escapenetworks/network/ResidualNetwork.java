@@ -0,0 +1,92 @@
+package edu.kit.informatik.escapenetworks.network;
+
+/**
+ * The mutable residual network of a flow on a {@link CompiledNetwork}.
+ * <p>
+ * Stores the remaining capacity of every arc. Pushing flow along an arc updates the arc and its
+ * {@link CompiledNetwork#getReverseArc(int) reverse arc} in place, so the residual network never has
+ * to be rebuilt and saturated arcs are simply skipped by searches.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+final class ResidualNetwork {
+
+    private final CompiledNetwork network;
+    private final int[] residualCapacities;
+
+    private ResidualNetwork(CompiledNetwork network, int[] residualCapacities) {
+        this.network = network;
+        this.residualCapacities = residualCapacities;
+    }
+
+    /**
+     * Creates the residual network of the empty flow on the given network.
+     *
+     * @param network The network.
+     * @return A new residual network in which every arc has its full capacity left.
+     */
+    static ResidualNetwork create(CompiledNetwork network) {
+        int[] residualCapacities = new int[network.getArcCount()];
+        for (int arc = 0; arc < residualCapacities.length; arc++) {
+            residualCapacities[arc] = network.getCapacity(arc);
+        }
+        return new ResidualNetwork(network, residualCapacities);
+    }
+
+    /**
+     * Returns the network this is the residual network of.
+     *
+     * @return The underlying network.
+     */
+    CompiledNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns the remaining capacity of the given arc.
+     *
+     * @param arc The index of the arc.
+     * @return The residual capacity, {@code 0} if the arc is saturated.
+     */
+    int getResidualCapacity(int arc) {
+        return residualCapacities[arc];
+    }
+
+    /**
+     * Returns the flow on the given arc. The flow on a residual arc is the negated flow on its reverse arc.
+     *
+     * @param arc The index of the arc.
+     * @return The flow.
+     */
+    int getFlow(int arc) {
+        return network.getCapacity(arc) - residualCapacities[arc];
+    }
+
+    /**
+     * Returns the net amount of flow going into the given vertex.
+     *
+     * @param vertex The index of the vertex.
+     * @return The inflow minus the outflow of the vertex.
+     */
+    long getNetInflow(int vertex) {
+        long inflow = 0;
+        for (int arc = network.firstArc(vertex); arc < network.endArc(vertex); arc++) {
+            inflow -= getFlow(arc);
+        }
+        return inflow;
+    }
+
+    /**
+     * Pushes the given amount of flow along an arc.
+     *
+     * @param arc    The index of the arc.
+     * @param amount The amount of flow, at most the residual capacity of the arc.
+     */
+    void push(int arc, int amount) {
+        residualCapacities[arc] -= amount;
+        residualCapacities[network.getReverseArc(arc)] += amount;
+    }
+}
@@ -0,0 +1,189 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A series-parallel combination of {@link Edge edges} that a reduced {@link CompiledNetwork} represents by a
+ * single arc.
+ * <p>
+ * A route is either a single edge, a series of routes that are traversed one after another (a chain of vertices
+ * with one incoming and one outgoing edge each) or a set of parallel routes between the same two vertices.
+ * The capacity of a series is the minimum capacity of its parts, the capacity of parallel routes is the sum of
+ * their capacities. Results computed on the route, i.e. cuts and flows, can be mapped back to its edges.
+ * <p>
+ * Routes are nested arbitrarily deep, so none of the operations is recursive.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see NetworkReduction
+ */
+final class Route {
+
+    private final Edge edge;
+    private final List<Route> parts;
+    private final boolean parallel;
+    private final Vertex from;
+    private final Vertex to;
+    private int capacity;
+    private Route bottleneck;
+
+    private Route(Edge edge, List<Route> parts, boolean parallel, Vertex from, Vertex to, int capacity) {
+        this.edge = edge;
+        this.parts = parts;
+        this.parallel = parallel;
+        this.from = from;
+        this.to = to;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates the route consisting of a single edge.
+     *
+     * @param edge     The edge.
+     * @param capacity The capacity of the edge.
+     * @return The route.
+     */
+    static Route of(Edge edge, int capacity) {
+        return new Route(edge, List.of(), false, edge.getFrom(), edge.getTo(), capacity);
+    }
+
+    /**
+     * Creates a route that traverses the given routes one after another.
+     *
+     * @param parts The routes in order; each one must start where the previous one ends.
+     * @return The route.
+     */
+    static Route series(List<Route> parts) {
+        Route bottleneck = parts.get(0);
+        for (Route part : parts) {
+            bottleneck = part.capacity < bottleneck.capacity ? part : bottleneck;
+        }
+        Route series = new Route(null, List.copyOf(parts), false,
+                parts.get(0).from, parts.get(parts.size() - 1).to, bottleneck.capacity);
+        series.bottleneck = bottleneck;
+        return series;
+    }
+
+    /**
+     * Returns whether two routes between the same vertices can be combined into parallel routes,
+     * i.e. whether their total capacity can be represented.
+     *
+     * @param a The first route.
+     * @param b The second route.
+     * @return {@code true} if the routes can be combined, {@code false} if not.
+     */
+    static boolean canCombine(Route a, Route b) {
+        return (long) a.capacity + b.capacity <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Combines two routes between the same vertices into parallel routes.
+     * <p>
+     * If the first route is already a combination of parallel routes that was created by this method,
+     * the second route is added to it, so that combining many routes does not nest them.
+     *
+     * @param a The first route.
+     * @param b The second route.
+     * @return The combined route.
+     * @see #canCombine(Route, Route)
+     */
+    static Route parallel(Route a, Route b) {
+        if (a.parallel) {
+            a.parts.add(b);
+            a.capacity += b.capacity;
+            return a;
+        }
+        List<Route> parts = new ArrayList<>();
+        parts.add(a);
+        parts.add(b);
+        return new Route(null, parts, true, a.from, a.to, a.capacity + b.capacity);
+    }
+
+    /**
+     * Returns the vertex this route starts from.
+     *
+     * @return The first vertex.
+     */
+    Vertex getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the vertex this route ends at.
+     *
+     * @return The last vertex.
+     */
+    Vertex getTo() {
+        return to;
+    }
+
+    /**
+     * Returns the amount of flow that can pass this route.
+     *
+     * @return The capacity.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds the edges that have to be cut to cut this route to the given collection.
+     * <p>
+     * These are the edges with the lowest capacity of every series and the edges of all parallel routes.
+     * Their capacities add up to the capacity of this route.
+     *
+     * @param cut The collection to add the edges to.
+     */
+    void collectCut(Collection<Edge> cut) {
+        Deque<Route> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            Route route = pending.pop();
+            if (route.edge != null) {
+                cut.add(route.edge);
+            } else if (route.parallel) {
+                route.parts.forEach(pending::push);
+            } else {
+                pending.push(route.bottleneck);
+            }
+        }
+    }
+
+    /**
+     * Distributes an amount of flow passing this route over its edges.
+     * <p>
+     * Every part of a series carries the whole amount, parallel routes are filled up one after another.
+     * Edges that do not carry any flow are not passed to the consumer.
+     *
+     * @param amount   The amount of flow, at most the capacity of this route.
+     * @param consumer The consumer to pass every edge and the flow on it to.
+     */
+    void distribute(int amount, ObjIntConsumer<Edge> consumer) {
+        Deque<Route> pendingRoutes = new ArrayDeque<>();
+        Deque<Integer> pendingAmounts = new ArrayDeque<>();
+        pendingRoutes.push(this);
+        pendingAmounts.push(amount);
+        while (!pendingRoutes.isEmpty()) {
+            Route route = pendingRoutes.pop();
+            int remaining = pendingAmounts.pop();
+            if (remaining == 0) {
+                continue;
+            }
+            if (route.edge != null) {
+                consumer.accept(route.edge, remaining);
+                continue;
+            }
+            for (Route part : route.parts) {
+                int share = route.parallel ? Math.min(remaining, part.capacity) : remaining;
+                pendingRoutes.push(part);
+                pendingAmounts.push(share);
+                remaining -= route.parallel ? share : 0;
+            }
+        }
+    }
+}
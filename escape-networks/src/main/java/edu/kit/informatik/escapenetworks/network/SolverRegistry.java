@@ -0,0 +1,95 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import edu.kit.informatik.util.Checks;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * A registry of {@link MaxFlowSolver}s, identified by their {@link MaxFlowSolver#getName() names}.
+ * <p>
+ * Every registry contains the {@link AutomaticSolver automatic solver}, which is also its default solver,
+ * and all built-in {@link FlowAlgorithm algorithms}. Further implementations can be added
+ * using {@link #register(MaxFlowSolver)}.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public final class SolverRegistry {
+
+    /**
+     * Pattern that matches valid solver names.
+     */
+    public static final Pattern SOLVER_NAME_PATTERN = Pattern.compile("[a-z]+(-[a-z]+)*");
+
+    private final Map<String, MaxFlowSolver> solvers;
+    private final AutomaticSolver defaultSolver;
+
+    private SolverRegistry(AutomaticSolver defaultSolver) {
+        this.solvers = new LinkedHashMap<>();
+        this.defaultSolver = defaultSolver;
+    }
+
+    /**
+     * Creates a registry that contains the automatic solver and the built-in algorithms.
+     *
+     * @return a new registry.
+     */
+    public static SolverRegistry create() {
+        SolverRegistry registry = new SolverRegistry(new AutomaticSolver());
+        registry.register(registry.defaultSolver);
+        for (FlowAlgorithm algorithm : FlowAlgorithm.values()) {
+            registry.register(algorithm);
+        }
+        return registry;
+    }
+
+    /**
+     * Adds a solver to this registry.
+     *
+     * @param solver The solver to add. Must not be {@code null}.
+     * @throws NullPointerException     if the solver is {@code null}.
+     * @throws IllegalArgumentException if the name of the solver is invalid or already taken.
+     * @see #SOLVER_NAME_PATTERN
+     */
+    public void register(MaxFlowSolver solver) {
+        Checks.notNull(solver, "Solver");
+        String name = solver.getName();
+        Checks.argument(name != null && SOLVER_NAME_PATTERN.matcher(name).matches(),
+                "Illegal solver name");
+        Checks.argument(!solvers.containsKey(name), "Solver " + name + " is already registered");
+        solvers.put(name, solver);
+    }
+
+    /**
+     * Looks up a registered solver by its name.
+     *
+     * @param name The name of the solver.
+     * @return An optional containing the solver, or the empty optional if no solver has that name.
+     */
+    public Optional<MaxFlowSolver> find(String name) {
+        return Optional.ofNullable(solvers.get(name));
+    }
+
+    /**
+     * Returns the solver to use when no solver is chosen explicitly.
+     *
+     * @return The {@link AutomaticSolver}.
+     */
+    public AutomaticSolver getDefault() {
+        return defaultSolver;
+    }
+
+    /**
+     * Returns an unmodifiable view of the registered solvers, in registration order.
+     *
+     * @return the registered solvers.
+     */
+    public Collection<MaxFlowSolver> getSolvers() {
+        return Collections.unmodifiableCollection(solvers.values());
+    }
+}
@@ -2,11 +2,12 @@ package edu.kit.informatik.escapenetworks.network;
 
 import edu.kit.informatik.util.Checks;
 
-import java.util.Objects;
-
 /**
  * A vertex in a {@link Graph}, identified by a String identifier field.
  * <p>
+ * Vertices handed out by a {@link VertexTable} additionally carry a dense integer {@link #getId() id}.
+ * Equality is always defined by the identifier, the hash code is computed once.
+ * <p>
  * This class is immutable.
  *
  * @author JohnnyJayJay
@@ -15,9 +16,13 @@ import java.util.Objects;
 public final class Vertex {
 
     private final String identifier;
+    private final int id;
+    private final int hash;
 
-    private Vertex(String identifier) {
+    private Vertex(String identifier, int id) {
         this.identifier = identifier;
+        this.id = id;
+        this.hash = identifier.hashCode();
     }
 
     /**
@@ -29,7 +34,18 @@ public final class Vertex {
      */
     public static Vertex create(String identifier) {
         Checks.notNull(identifier, "Identifier");
-        return new Vertex(identifier);
+        return new Vertex(identifier, -1);
+    }
+
+    /**
+     * Creates the canonical vertex of a {@link VertexTable}.
+     *
+     * @param identifier The identifier of the vertex.
+     * @param id         The id assigned by the table.
+     * @return The new vertex.
+     */
+    static Vertex interned(String identifier, int id) {
+        return new Vertex(identifier, id);
     }
 
     /**
@@ -41,6 +57,15 @@ public final class Vertex {
         return identifier;
     }
 
+    /**
+     * Returns the id assigned to this vertex by the {@link VertexTable} it was interned in.
+     *
+     * @return The id or {@code -1} if this vertex was created with {@link #create(String)}.
+     */
+    public int getId() {
+        return id;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -50,12 +75,12 @@ public final class Vertex {
             return false;
         }
         Vertex vertex = (Vertex) o;
-        return Objects.equals(identifier, vertex.identifier);
+        return hash == vertex.hash && identifier.equals(vertex.identifier);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(identifier);
+        return hash;
     }
 
     @Override
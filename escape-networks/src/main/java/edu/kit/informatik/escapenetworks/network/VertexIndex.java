@@ -0,0 +1,113 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the vertices of a {@link CompiledNetwork} to their indices.
+ * <p>
+ * If all vertices, except for a few like the virtual terminals, have been interned in a {@link VertexTable},
+ * the index of a vertex is looked up by its {@link Vertex#getId() id} in an array. Otherwise, the indices are
+ * kept in a hash map. The indices of the {@link CompiledNetwork#SUPER_SOURCE virtual terminals}, which have no id,
+ * are stored separately.
+ * <p>
+ * This class is immutable.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see CompiledNetwork#indexOf(Vertex)
+ */
+final class VertexIndex {
+
+    private static final int MAX_ID_GAP = 1024;
+    private static final int MAX_UNINTERNED = 2;
+
+    private final Vertex[] vertices;
+    private final Map<Vertex, Integer> indices;
+    private final int[] indicesById;
+    private final int minId;
+    private final int superSource;
+    private final int superSink;
+
+    private VertexIndex(Vertex[] vertices, Map<Vertex, Integer> indices, int[] indicesById, int minId,
+                        int superSource, int superSink) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.indicesById = indicesById;
+        this.minId = minId;
+        this.superSource = superSource;
+        this.superSink = superSink;
+    }
+
+    /**
+     * Indexes the given vertices by their position in the array.
+     *
+     * @param vertices The vertices. The array must not be modified afterwards.
+     * @return The index of the vertices.
+     */
+    static VertexIndex of(Vertex[] vertices) {
+        int vertexCount = vertices.length;
+        int minId = Integer.MAX_VALUE;
+        int maxId = -1;
+        int uninterned = 0;
+        int superSource = -1;
+        int superSink = -1;
+        for (int i = 0; i < vertexCount; i++) {
+            Vertex vertex = vertices[i];
+            if (vertex == CompiledNetwork.SUPER_SOURCE) {
+                superSource = i;
+            } else if (vertex == CompiledNetwork.SUPER_SINK) {
+                superSink = i;
+            } else if (vertex.getId() < 0) {
+                uninterned++;
+            } else {
+                minId = Math.min(minId, vertex.getId());
+                maxId = Math.max(maxId, vertex.getId());
+            }
+        }
+        // ids of vertices read together are close to each other; fall back to hashing if they are too far apart.
+        // a few other vertices without an id are found by scanning
+        if (maxId >= 0 && uninterned <= MAX_UNINTERNED && (long) maxId - minId < 4L * vertexCount + MAX_ID_GAP) {
+            int[] indicesById = new int[maxId - minId + 1];
+            for (int i = 0; i < vertexCount; i++) {
+                if (vertices[i].getId() >= 0) {
+                    indicesById[vertices[i].getId() - minId] = i + 1;
+                }
+            }
+            return new VertexIndex(vertices, null, indicesById, minId, superSource, superSink);
+        }
+        Map<Vertex, Integer> indices = new HashMap<>(vertexCount * 2);
+        for (int i = 0; i < vertexCount; i++) {
+            indices.put(vertices[i], i);
+        }
+        return new VertexIndex(vertices, indices, null, minId, superSource, superSink);
+    }
+
+    /**
+     * Returns the index of the given vertex.
+     *
+     * @param vertex The vertex to look up.
+     * @return The index of the vertex or {@code -1} if the vertex is not indexed.
+     */
+    int indexOf(Vertex vertex) {
+        if (vertex == CompiledNetwork.SUPER_SOURCE) {
+            return superSource;
+        } else if (vertex == CompiledNetwork.SUPER_SINK) {
+            return superSink;
+        } else if (indicesById == null) {
+            return indices.getOrDefault(vertex, -1);
+        }
+        int id = vertex.getId() - minId;
+        int index = vertex.getId() >= 0 && id >= 0 && id < indicesById.length ? indicesById[id] - 1 : -1;
+        if (index >= 0 && vertices[index] == vertex) {
+            return index;
+        }
+        // vertices that were not interned in the same table are rare; they are looked up by their identifier
+        for (int i = 0; i < vertices.length; i++) {
+            if (vertices[i].equals(vertex)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
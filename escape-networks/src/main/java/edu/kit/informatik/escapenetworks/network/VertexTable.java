@@ -0,0 +1,97 @@
+package edu.kit.informatik.escapenetworks.network;
+
+import edu.kit.informatik.util.Checks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A table that hands out one canonical {@link Vertex} instance per identifier.
+ * <p>
+ * Every vertex interned in a table is assigned a dense integer {@link Vertex#getId() id}, starting at {@code 0}
+ * in the order the identifiers are first seen. Interned vertices compare equal to other vertices with the same
+ * identifier, but two interned vertices of the same table are equal if and only if they are the same instance,
+ * which makes lookups in hash based collections cheap. Flow computations use the ids to index vertices
+ * without hashing them.
+ * <p>
+ * Vertices are never removed from a table. This class is thread-safe.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see Vertex
+ */
+public final class VertexTable {
+
+    private final Map<String, Vertex> vertices;
+    private final List<Vertex> byId;
+
+    private VertexTable() {
+        this.vertices = new HashMap<>();
+        this.byId = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new, empty vertex table.
+     *
+     * @return The table.
+     */
+    public static VertexTable create() {
+        return new VertexTable();
+    }
+
+    /**
+     * Returns the canonical vertex for the given identifier, adding it to the table if it is not present yet.
+     *
+     * @param identifier The identifier of the vertex.
+     * @return The interned vertex.
+     * @throws NullPointerException if the identifier is {@code null}.
+     */
+    public synchronized Vertex intern(String identifier) {
+        Checks.notNull(identifier, "Identifier");
+        Vertex vertex = vertices.get(identifier);
+        if (vertex == null) {
+            vertex = Vertex.interned(identifier, byId.size());
+            vertices.put(identifier, vertex);
+            byId.add(vertex);
+        }
+        return vertex;
+    }
+
+    /**
+     * Returns the canonical vertex for the given identifier without adding it to the table.
+     * <p>
+     * This is meant for vertices that are only looked up, e.g. in queries: a vertex that is not in the table
+     * cannot be part of a network built from the table, so there is no need to keep it.
+     *
+     * @param identifier The identifier of the vertex.
+     * @return The interned vertex or a new vertex that is not interned if the identifier is not in the table.
+     * @throws NullPointerException if the identifier is {@code null}.
+     */
+    public synchronized Vertex lookup(String identifier) {
+        Checks.notNull(identifier, "Identifier");
+        Vertex vertex = vertices.get(identifier);
+        return vertex == null ? Vertex.create(identifier) : vertex;
+    }
+
+    /**
+     * Returns the vertex with the given id.
+     *
+     * @param id The id of the vertex.
+     * @return The interned vertex.
+     * @throws IndexOutOfBoundsException if no vertex has the given id.
+     */
+    public synchronized Vertex get(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Returns the number of vertices in this table, which is also the smallest id that has not been handed out.
+     *
+     * @return The size of the table.
+     */
+    public synchronized int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,81 @@
+package edu.kit.informatik.escapenetworks.program;
+
+import edu.kit.informatik.escapenetworks.network.Network;
+
+/**
+ * A snapshot of the flow cache counters of a single network.
+ * <p>
+ * This class is immutable.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see FlowCache#getStatistics(String, Network)
+ */
+public final class CacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+
+    private CacheStatistics(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    /**
+     * Creates a new statistics snapshot.
+     *
+     * @param hits      The number of lookups that found a cached flow.
+     * @param misses    The number of lookups that did not find a cached flow.
+     * @param evictions The number of flows removed to stay within the capacity of the cache.
+     * @param size      The number of flows currently cached.
+     * @return The statistics.
+     */
+    static CacheStatistics of(long hits, long misses, long evictions, int size) {
+        return new CacheStatistics(hits, misses, evictions, size);
+    }
+
+    /**
+     * Returns the number of lookups that found a cached flow.
+     *
+     * @return The hit count.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached flow.
+     *
+     * @return The miss count.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of flows that were removed to stay within the capacity of the cache.
+     *
+     * @return The eviction count.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of flow values currently cached.
+     *
+     * @return The cache size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d evictions=%d size=%d", hits, misses, evictions, size);
+    }
+}
@@ -1,6 +1,7 @@
 package edu.kit.informatik.escapenetworks.program;
 
 import edu.kit.informatik.escapenetworks.network.Edge;
+import edu.kit.informatik.escapenetworks.network.FlowPath;
 import edu.kit.informatik.escapenetworks.network.Network;
 import edu.kit.informatik.escapenetworks.network.Vertex;
 
@@ -39,6 +40,18 @@ public final class Display {
         return stringify(edge.getFrom()) + section.getCapacity() + stringify(edge.getTo());
     }
 
+    /**
+     * Stringifies the given flow path as its amount followed by the vertices of the path.
+     *
+     * @param path The flow path to stringify.
+     * @return The string representation of a flow path as used by the program.
+     */
+    public static String stringify(FlowPath path) {
+        return path.getAmount() + " " + path.getPath().getVertices().stream()
+                .map(Display::stringify)
+                .collect(Collectors.joining(" "));
+    }
+
     /**
      * Stringifies the given network.
      *
@@ -1,23 +1,45 @@
 package edu.kit.informatik.escapenetworks.program;
 
+import edu.kit.informatik.escapenetworks.network.Edge;
 import edu.kit.informatik.escapenetworks.network.Flow;
+import edu.kit.informatik.escapenetworks.network.FlowAlgorithm;
+import edu.kit.informatik.escapenetworks.network.FlowAssignment;
+import edu.kit.informatik.escapenetworks.network.FlowPath;
+import edu.kit.informatik.escapenetworks.network.MaxFlowSolver;
 import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.network.SolverRegistry;
 import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.network.VertexTable;
 import edu.kit.informatik.util.Checks;
 import edu.kit.informatik.util.Pair;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * A class that encapsulates the state of the escape networks program.
  * <p>
- * Keeps track of the registered networks and their identifiers as well as
- * the flows calculated and cached for a given network.
+ * Keeps track of the registered networks and their identifiers,
+ * the flows calculated and cached for a given network as well as the available max flow solvers.
+ * <p>
+ * Besides the cached flow values, the final flow of every computation is kept as well. When a network grows,
+ * its cached values do not apply anymore, but the next computation for the same source and sink resumes from
+ * the kept flow instead of starting from scratch. Values and flows are kept in a bounded {@link FlowCache}.
+ * <p>
+ * Networks with the same sections are only stored once, even if they are registered under different ids,
+ * and share their cached flows.
+ * <p>
+ * Flows can also be computed in the background by {@link FlowJobs}, which add their results to the same cache.
  *
  * @author JohnnyJayJay
  * @version 1.0.0
@@ -34,16 +56,50 @@ public class EscapeNetworkSystem {
      */
     public static final Pattern NETWORK_NAME_PATTERN = Pattern.compile("[A-Z]{1,6}");
 
+    /**
+     * The minimum number of sections a network must consist of to be added to the system.
+     */
+    public static final int MIN_SECTIONS = 2;
+
+    /**
+     * The number of flows cached by default.
+     */
+    public static final int DEFAULT_FLOW_CACHE_CAPACITY = 1024;
+
     private final Map<String, Network> registeredNetworks;
-    private final Map<String, Map<Pair<Vertex, Vertex>, Long>> flowCache;
+    private final Map<Network, Network> canonicalNetworks;
+    private final Map<Network, Integer> references;
+    private final FlowCache flowCache;
+    private final SolverRegistry solvers;
+    private final VertexTable vertices;
+    private final FlowJobs flowJobs;
+    private MutationLog mutationLog;
 
     /**
      * Initialises a new escape system environment with an empty map
-     * of registered networks and an empty flow cache.
+     * of registered networks, an empty flow cache of the {@link #DEFAULT_FLOW_CACHE_CAPACITY default capacity}
+     * and the default solvers.
      */
     public EscapeNetworkSystem() {
+        this(DEFAULT_FLOW_CACHE_CAPACITY);
+    }
+
+    /**
+     * Initialises a new escape system environment with an empty map
+     * of registered networks, an empty flow cache of the given capacity and the default solvers.
+     *
+     * @param flowCacheCapacity The maximum number of flows to cache.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     * @see FlowCache
+     */
+    public EscapeNetworkSystem(int flowCacheCapacity) {
         this.registeredNetworks = new HashMap<>();
-        this.flowCache = new HashMap<>();
+        this.canonicalNetworks = new HashMap<>();
+        this.references = new HashMap<>();
+        this.flowCache = FlowCache.create(flowCacheCapacity);
+        this.solvers = SolverRegistry.create();
+        this.vertices = VertexTable.create();
+        this.flowJobs = FlowJobs.create(this);
     }
 
     /**
@@ -59,6 +115,9 @@ public class EscapeNetworkSystem {
 
     /**
      * Registers a network by associating it with an id/name.
+     * <p>
+     * If an equal network is already registered, the id is associated with that network instead,
+     * so that both ids share one copy of the network and its cached flows.
      *
      * @param networkId The id of the network to register.
      * @param network   The network to associate the id with.
@@ -69,6 +128,39 @@ public class EscapeNetworkSystem {
      * @see #NETWORK_NAME_PATTERN
      */
     public void registerNetwork(String networkId, Network network) {
+        validateRegistration(networkId, network);
+        register(networkId, network);
+    }
+
+    /**
+     * Registers multiple networks at once.
+     * <p>
+     * All networks are validated before any of them is registered, so either all of them are registered or none.
+     *
+     * @param networks The networks to register by their ids.
+     * @throws NullPointerException     if the map, an id or a network is {@code null}.
+     * @throws IllegalArgumentException If one of the networks or one of the vertices within
+     *                                  does not match the name requirements.
+     * @see #registerNetwork(String, Network)
+     */
+    public void registerNetworks(Map<String, Network> networks) {
+        Checks.notNull(networks, "Networks");
+        networks.forEach(EscapeNetworkSystem::validateRegistration);
+        networks.forEach(this::register);
+    }
+
+    private void register(String networkId, Network network) {
+        // equal networks are found by their content hash, so ids of equal networks share one instance
+        Network canonical = canonicalNetworks.computeIfAbsent(network, (key) -> key);
+        references.merge(canonical, 1, Integer::sum);
+        Network replaced = registeredNetworks.put(networkId, canonical);
+        if (replaced != null && references.merge(replaced, -1, (count, delta) -> count + delta == 0
+                ? null : count + delta) == null) {
+            canonicalNetworks.remove(replaced);
+        }
+    }
+
+    private static void validateRegistration(String networkId, Network network) {
         Checks.notNull(networkId, "Identifier");
         Checks.notNull(network, "Network");
         Checks.argument(NETWORK_NAME_PATTERN.matcher(networkId).matches(),
@@ -78,7 +170,6 @@ public class EscapeNetworkSystem {
                         .map(VERTEX_NAME_PATTERN::matcher)
                         .allMatch(Matcher::matches),
                 "Network contains vertices with illegal identifiers");
-        registeredNetworks.put(networkId, network);
     }
 
     /**
@@ -86,7 +177,9 @@ public class EscapeNetworkSystem {
      * {@code networkId}.
      * <p>
      * First checks to see if this flow has already been calculated and returns the cached result if that is the case.
-     * Otherwise, computes the result and caches it.
+     * Otherwise, computes the result using the algorithm chosen by the
+     * {@link SolverRegistry#getDefault() default solver} and caches it. If a flow between the same vertices has been
+     * computed on a previous version of the network, the computation resumes from that flow.
      *
      * @param networkId The id of the network to use for flow.
      * @param source The source of the flow.
@@ -96,11 +189,265 @@ public class EscapeNetworkSystem {
      * @throws IllegalArgumentException if the source/sink is not a valid source/sink for {@code network}.
      */
     public long computeMaxFlow(String networkId, Vertex source, Vertex sink) {
+        Network network = getNetwork(networkId);
+        Pair<Vertex, Vertex> query = Pair.of(source, sink);
+        Long cached = flowCache.getValue(networkId, network, query);
+        return cached != null ? cached : getFlow(networkId, network, query).getValue();
+    }
+
+    /**
+     * Returns the maximum flow from any of the {@code sources} to any of the {@code sinks} in the network associated
+     * with {@code networkId}.
+     * <p>
+     * If there is just one source and one sink, this is the same as {@link #computeMaxFlow(String, Vertex, Vertex)}.
+     * Otherwise, the flow is computed in a single run using the algorithm chosen by the
+     * {@link SolverRegistry#getDefault() default solver}. Such flows are not cached, because the cache holds the
+     * flows between pairs of source and sink.
+     *
+     * @param networkId The id of the network to use for flow.
+     * @param sources The sources of the flow.
+     * @param sinks The sinks of the flow.
+     * @return The flow from {@code sources} to {@code sinks}.
+     * @throws NullPointerException if any of the arguments or vertices is {@code null}.
+     * @throws IllegalArgumentException if one of the sets is empty or contains a vertex that is not a valid
+     *                                  source/sink for {@code network}.
+     * @see Flow#compute(Network, Set, Set, FlowAlgorithm)
+     */
+    public long computeMaxFlow(String networkId, Set<Vertex> sources, Set<Vertex> sinks) {
+        Checks.notNull(sources, "Sources");
+        Checks.notNull(sinks, "Sinks");
+        if (sources.size() == 1 && sinks.size() == 1) {
+            return computeMaxFlow(networkId, sources.iterator().next(), sinks.iterator().next());
+        }
+        return getFlow(networkId, sources, sinks).getValue();
+    }
+
+    /**
+     * Returns the evacuation routes of the maximum flow from any of the {@code sources} to any of the {@code sinks}
+     * in the network associated with {@code networkId}, i.e. the paths the flow takes and the amount of flow
+     * on each of them.
+     * <p>
+     * The flow is obtained like in {@link #computeMaxFlow(String, Set, Set)}, so the flow between a single source
+     * and sink is taken from the cache if possible.
+     *
+     * @param networkId The id of the network to use for flow.
+     * @param sources The sources of the flow.
+     * @param sinks The sinks of the flow.
+     * @return The decomposition of the flow into paths, whose amounts add up to the flow value.
+     * @throws NullPointerException if any of the arguments or vertices is {@code null}.
+     * @throws IllegalArgumentException if one of the sets is empty or contains a vertex that is not a valid
+     *                                  source/sink for {@code network}.
+     * @see FlowAssignment#decompose()
+     */
+    public List<FlowPath> computeEvacuationRoutes(String networkId, Set<Vertex> sources, Set<Vertex> sinks) {
+        Checks.notNull(sources, "Sources");
+        Checks.notNull(sinks, "Sinks");
+        return getFlow(networkId, sources, sinks).getAssignment().decompose();
+    }
+
+    private Flow getFlow(String networkId, Set<Vertex> sources, Set<Vertex> sinks) {
+        Network network = getNetwork(networkId);
+        if (sources.size() == 1 && sinks.size() == 1) {
+            return getFlow(networkId, network, Pair.of(sources.iterator().next(), sinks.iterator().next()));
+        }
+        return Flow.compute(network, sources, sinks, solvers.getDefault().select(network));
+    }
+
+    /**
+     * Returns the sections of a minimum cut between {@code source} and {@code sink} in the network associated
+     * with {@code networkId}, i.e. the sections that limit the maximum flow.
+     * <p>
+     * If the maximum flow for these vertices has already been computed on the current network, the cut is
+     * derived from that flow. Otherwise, the flow is computed and cached first, just like in
+     * {@link #computeMaxFlow(String, Vertex, Vertex)}.
+     *
+     * @param networkId The id of the network to use.
+     * @param source The source of the flow.
+     * @param sink The sink of the flow.
+     * @return The edges of the minimum cut.
+     * @throws NullPointerException if any of the arguments is {@code null}.
+     * @throws IllegalArgumentException if the source/sink is not a valid source/sink for {@code network}.
+     * @see Flow#getMinimumCut()
+     */
+    public Set<Edge> computeMinimumCut(String networkId, Vertex source, Vertex sink) {
+        return getFlow(networkId, getNetwork(networkId), Pair.of(source, sink)).getMinimumCut();
+    }
+
+    private Network getNetwork(String networkId) {
         Optional<Network> network = findNetwork(networkId);
         Checks.argument(network.isPresent(), "Network " + networkId + " is not registered");
-        return flowCache
-                .computeIfAbsent(networkId, (n) -> new HashMap<>())
-                .computeIfAbsent(Pair.of(source, sink), (pair) -> Flow.computeMaxFlow(network.get(), source, sink));
+        return network.get();
+    }
+
+    private Flow getFlow(String networkId, Network network, Pair<Vertex, Vertex> query) {
+        Flow previous = flowCache.getFlow(networkId, network, query);
+        if (previous != null && previous.getNetwork() == network) {
+            return previous;
+        }
+        Pair<Flow, Long> solved;
+        try {
+            solved = solve(network, previous, query, solvers.getDefault().select(network));
+        } catch (IllegalArgumentException e) {
+            flowCache.remove(networkId, query);
+            throw e;
+        }
+        Flow flow = solved.getLeft();
+        flowCache.put(networkId, network, query, flow.getValue(), flow, solved.getRight());
+        return flow;
+    }
+
+    private static Pair<Flow, Long> solve(Network network, Flow previous, Pair<Vertex, Vertex> query,
+                                          FlowAlgorithm algorithm) {
+        long start = System.nanoTime();
+        Flow flow = previous == null
+                ? Flow.compute(network, query.getLeft(), query.getRight(), algorithm)
+                : Flow.resume(previous, network, algorithm);
+        return Pair.of(flow, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the maximum flows between multiple pairs of source and sink in the network associated with
+     * {@code networkId}.
+     * <p>
+     * Behaves like {@link #computeMaxFlow(String, Vertex, Vertex)} for every query, except that the flows that
+     * are not cached yet are computed in parallel in the {@link ForkJoinPool#commonPool() common pool}.
+     * All queries are validated before any computation starts and the results are only added to the cache
+     * once all of them are known, so the cache either receives all new values or none.
+     *
+     * @param networkId The id of the network to use for flow.
+     * @param queries The pairs of source and sink to compute the flow for.
+     * @return An unmodifiable map from each distinct query to its flow, in the order of {@code queries}.
+     * @throws NullPointerException if any of the arguments or queries is {@code null}.
+     * @throws IllegalArgumentException if one of the sources/sinks is not a valid source/sink for {@code network}.
+     */
+    public Map<Pair<Vertex, Vertex>, Long> computeMaxFlows(String networkId, List<Pair<Vertex, Vertex>> queries) {
+        Checks.notNull(queries, "Queries");
+        Network network = getNetwork(networkId);
+        Map<Pair<Vertex, Vertex>, Long> result = new LinkedHashMap<>();
+        List<Pair<Vertex, Vertex>> pending = new ArrayList<>();
+        for (Pair<Vertex, Vertex> query : queries) {
+            Checks.notNull(query, "Query");
+            validateQuery(network, query);
+        }
+        for (Pair<Vertex, Vertex> query : queries) {
+            if (!result.containsKey(query)) {
+                Long cached = flowCache.getValue(networkId, network, query);
+                result.put(query, cached);
+                if (cached == null) {
+                    pending.add(query);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return Collections.unmodifiableMap(result);
+        }
+
+        FlowAlgorithm algorithm = solvers.getDefault().select(network);
+        List<ForkJoinTask<Pair<Flow, Long>>> tasks = new ArrayList<>(pending.size());
+        for (Pair<Vertex, Vertex> query : pending) {
+            Flow previous = flowCache.getFlow(networkId, network, query);
+            tasks.add(ForkJoinTask.adapt(() -> solve(network, previous, query, algorithm)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        for (int i = 0; i < pending.size(); i++) {
+            Pair<Vertex, Vertex> query = pending.get(i);
+            Pair<Flow, Long> solved = tasks.get(i).join();
+            Flow flow = solved.getLeft();
+            flowCache.put(networkId, network, query, flow.getValue(), flow, solved.getRight());
+            result.put(query, flow.getValue());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Validates a pair of source and sink for a flow in the given network.
+     *
+     * @param network The network.
+     * @param query   The source and the sink.
+     * @throws NullPointerException     if the source or the sink is {@code null}.
+     * @throws IllegalArgumentException if the source/sink is not a valid source/sink for {@code network}.
+     */
+    static void validateQuery(Network network, Pair<Vertex, Vertex> query) {
+        Checks.notNull(query.getLeft(), "Source vertex");
+        Checks.notNull(query.getRight(), "Sink vertex");
+        Checks.argument(network.isValidSource(query.getLeft()),
+                "Vertex " + query.getLeft() + " is not a valid source");
+        Checks.argument(network.isValidSink(query.getRight()),
+                "Vertex " + query.getRight() + " is not a valid sink");
+        Checks.argument(!query.getLeft().equals(query.getRight()),
+                "Source and sink must be different vertices");
+    }
+
+    /**
+     * Computes the maximum flow from {@code source} to {@code sink} in the network associated with
+     * {@code networkId} using the given solver.
+     * <p>
+     * Unlike {@link #computeMaxFlow(String, Vertex, Vertex)}, this always runs the solver, even if the flow
+     * has already been cached. The result is cached afterwards.
+     *
+     * @param networkId The id of the network to use for flow.
+     * @param source The source of the flow.
+     * @param sink The sink of the flow.
+     * @param solver The solver to compute the flow with.
+     * @return The flow from {@code source} to {@code sink}.
+     * @throws NullPointerException if any of the arguments is {@code null}.
+     * @throws IllegalArgumentException if the source/sink is not a valid source/sink for {@code network}.
+     */
+    public long computeMaxFlow(String networkId, Vertex source, Vertex sink, MaxFlowSolver solver) {
+        Checks.notNull(solver, "Solver");
+        Network network = getNetwork(networkId);
+        long start = System.nanoTime();
+        long flow = solver.computeMaxFlow(network, source, sink);
+        flowCache.put(networkId, network, Pair.of(source, sink), flow, null, System.nanoTime() - start);
+        return flow;
+    }
+
+    /**
+     * Returns the flow computations of this system that run in the background.
+     *
+     * @return The background flow computations.
+     */
+    public FlowJobs getFlowJobs() {
+        return flowJobs;
+    }
+
+    /**
+     * Returns the log that additions to the networks of this system are recorded in, if any.
+     *
+     * @return The mutation log or the empty optional if additions are not persisted.
+     */
+    public Optional<MutationLog> getMutationLog() {
+        return Optional.ofNullable(mutationLog);
+    }
+
+    /**
+     * Sets the log that additions to the networks of this system are recorded in.
+     *
+     * @param mutationLog The mutation log or {@code null} to stop persisting additions.
+     */
+    public void setMutationLog(MutationLog mutationLog) {
+        this.mutationLog = mutationLog;
+    }
+
+    /**
+     * Returns the registry of solvers available to compute flows.
+     *
+     * @return The solver registry.
+     */
+    public SolverRegistry getSolverRegistry() {
+        return solvers;
+    }
+
+    /**
+     * Returns the table the vertices of this system are interned in.
+     * <p>
+     * Networks that are built from vertices of this table can be compiled and queried without hashing
+     * vertex identifiers.
+     *
+     * @return The vertex table.
+     */
+    public VertexTable getVertexTable() {
+        return vertices;
     }
 
     /**
@@ -113,23 +460,33 @@ public class EscapeNetworkSystem {
     }
 
     /**
-     * Returns an unmodifiable view of the flow cache map for the given network id.
+     * Returns the flows currently cached for the given network id.
+     * <p>
+     * Since the {@link FlowCache flow cache} is bounded, flows that have been computed before may have been evicted.
      *
      * @param networkId The network id to get the flow cache for.
-     * @return The cached flows, or the empty map if no flows have been cached.
+     * @return An unmodifiable map of the cached flows, or the empty map if no flows are cached.
      */
     public Map<Pair<Vertex, Vertex>, Long> getCachedFlows(String networkId) {
-        return Collections.unmodifiableMap(flowCache.getOrDefault(networkId, Map.of()));
+        return findNetwork(networkId).map(flowCache::getValues).orElse(Map.of());
     }
 
     /**
-     * Invalidates the flow cache for the given network id, in other words, clears the cache.
-     * <p>
-     * Does nothing if the network doesn't exist.
+     * Returns the cache holding the flows computed in this system.
+     *
+     * @return The flow cache.
+     */
+    FlowCache getFlowCache() {
+        return flowCache;
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the flow cache for the given network id.
      *
-     * @param networkId The network id to clear the associated cache for.
+     * @param networkId The network id to get the statistics for.
+     * @return The cache statistics.
      */
-    public void invalidateFlowCache(String networkId) {
-        flowCache.remove(networkId);
+    public CacheStatistics getCacheStatistics(String networkId) {
+        return flowCache.getStatistics(networkId, registeredNetworks.get(networkId));
     }
 }
@@ -0,0 +1,260 @@
+package edu.kit.informatik.escapenetworks.program;
+
+import edu.kit.informatik.escapenetworks.network.Flow;
+import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.util.Checks;
+import edu.kit.informatik.util.Pair;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A size-bounded cache for the flows computed in the networks of an {@link EscapeNetworkSystem}.
+ * <p>
+ * Every entry belongs to the content of a network and a pair of source and sink and holds the value of the flow and,
+ * if available, the {@link Flow} it was computed from. Entries are looked up by the {@link Network#equals(Object)
+ * content} of a network rather than its id, so networks that are registered under several ids share their entries
+ * and a changed network never sees the values of its previous version. For every network id and query, the cache
+ * also remembers the last entry that was used, so that the computation on a changed network can resume from the
+ * flow computed on a previous version of it.
+ * <p>
+ * If the cache grows beyond its capacity, entries are evicted using the
+ * <a href="https://en.wikipedia.org/wiki/Cache_replacement_policies#GreedyDual-Size">GreedyDual</a> policy:
+ * every entry has a priority of {@code L + cost}, where {@code cost} is the time it took to compute the flow and
+ * {@code L} is the priority of the last evicted entry at the time the entry was inserted or last accessed.
+ * The entry with the lowest priority is evicted first. With equal costs, this is least recently used eviction;
+ * flows that were expensive to compute stay in the cache longer than cheap ones.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public final class FlowCache {
+
+    private final int capacity;
+    private final Map<Network, Map<Pair<Vertex, Vertex>, Entry>> entries;
+    private final Map<String, Map<Pair<Vertex, Vertex>, Entry>> latest;
+    private final Map<String, Counters> counters;
+    private final TreeSet<Entry> evictionOrder;
+    private long inflation;
+    private long sequence;
+
+    private FlowCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new HashMap<>();
+        this.latest = new HashMap<>();
+        this.counters = new HashMap<>();
+        this.evictionOrder = new TreeSet<>(Comparator.<Entry>comparingLong((entry) -> entry.priority)
+                .thenComparingLong((entry) -> entry.sequence));
+    }
+
+    /**
+     * Creates a new, empty flow cache.
+     *
+     * @param capacity The maximum number of entries in the cache.
+     * @return The cache.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public static FlowCache create(int capacity) {
+        Checks.argument(capacity > 0, "Cache capacity must be positive");
+        return new FlowCache(capacity);
+    }
+
+    /**
+     * Looks up the cached flow value for a query and records a hit or miss for the network id.
+     *
+     * @param networkId The id of the network.
+     * @param network   The network registered for the id.
+     * @param query     The pair of source and sink.
+     * @return The cached value or {@code null} if there is none.
+     */
+    public Long getValue(String networkId, Network network, Pair<Vertex, Vertex> query) {
+        Entry entry = entries.getOrDefault(network, Map.of()).get(query);
+        Counters networkCounters = counters.computeIfAbsent(networkId, (n) -> new Counters());
+        if (entry == null) {
+            networkCounters.misses++;
+            return null;
+        }
+        networkCounters.hits++;
+        use(networkId, entry);
+        return entry.value;
+    }
+
+    /**
+     * Returns the flow kept for a query. If there is no flow for the given network, this is the flow that was
+     * last used for the same network id and query, which may have been computed on a previous version of the network.
+     * <p>
+     * This does not count as a hit or miss.
+     *
+     * @param networkId The id of the network.
+     * @param network   The network registered for the id.
+     * @param query     The pair of source and sink.
+     * @return The kept flow or {@code null} if there is none.
+     */
+    public Flow getFlow(String networkId, Network network, Pair<Vertex, Vertex> query) {
+        Entry entry = entries.getOrDefault(network, Map.of()).get(query);
+        if (entry == null || entry.flow == null) {
+            entry = latest.getOrDefault(networkId, Map.of()).get(query);
+        }
+        if (entry == null || entry.flow == null) {
+            return null;
+        }
+        use(networkId, entry);
+        return entry.flow;
+    }
+
+    /**
+     * Caches the value of a flow, evicting other entries if the capacity is exceeded.
+     *
+     * @param networkId The id of the network.
+     * @param network   The network the flow was computed on.
+     * @param query     The pair of source and sink.
+     * @param value     The flow value.
+     * @param flow      The flow the value was computed from or {@code null} to keep the flow that is already cached.
+     * @param cost      The cost of computing the flow, e.g. in nanoseconds.
+     */
+    public void put(String networkId, Network network, Pair<Vertex, Vertex> query, long value, Flow flow, long cost) {
+        Map<Pair<Vertex, Vertex>, Entry> networkEntries = entries.computeIfAbsent(network, (n) -> new HashMap<>());
+        Entry entry = networkEntries.get(query);
+        if (entry == null) {
+            entry = new Entry(network, query);
+            networkEntries.put(query, entry);
+        } else {
+            evictionOrder.remove(entry);
+        }
+        entry.value = value;
+        entry.flow = flow == null ? entry.flow : flow;
+        entry.cost = Math.max(0, cost);
+        link(networkId, entry);
+        insert(entry);
+        while (evictionOrder.size() > capacity) {
+            evict(evictionOrder.first());
+        }
+    }
+
+    /**
+     * Forgets the flow kept for a query of a network id, e.g. because the query is not valid for the network
+     * anymore.
+     *
+     * @param networkId The id of the network.
+     * @param query     The pair of source and sink.
+     */
+    public void remove(String networkId, Pair<Vertex, Vertex> query) {
+        Map<Pair<Vertex, Vertex>, Entry> networkLatest = latest.get(networkId);
+        Entry removed = networkLatest == null ? null : networkLatest.remove(query);
+        if (removed != null) {
+            removed.networkIds.remove(networkId);
+        }
+    }
+
+    /**
+     * Returns the cached values of the given network.
+     *
+     * @param network The network.
+     * @return An unmodifiable map from pairs of source and sink to flow values.
+     */
+    public Map<Pair<Vertex, Vertex>, Long> getValues(Network network) {
+        Map<Pair<Vertex, Vertex>, Long> values = new HashMap<>();
+        entries.getOrDefault(network, Map.of()).forEach((query, entry) -> values.put(query, entry.value));
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Returns the counters of the given network id.
+     *
+     * @param networkId The id of the network.
+     * @param network   The network registered for the id.
+     * @return A snapshot of the counters.
+     */
+    public CacheStatistics getStatistics(String networkId, Network network) {
+        Counters networkCounters = counters.getOrDefault(networkId, new Counters());
+        return CacheStatistics.of(networkCounters.hits, networkCounters.misses, networkCounters.evictions,
+                entries.getOrDefault(network, Map.of()).size());
+    }
+
+    /**
+     * Returns the maximum number of entries in this cache.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void use(String networkId, Entry entry) {
+        link(networkId, entry);
+        touch(entry);
+    }
+
+    private void link(String networkId, Entry entry) {
+        entry.networkId = networkId;
+        Entry previous = latest.computeIfAbsent(networkId, (n) -> new HashMap<>()).put(entry.query, entry);
+        if (previous != null && previous != entry) {
+            previous.networkIds.remove(networkId);
+        }
+        entry.networkIds.add(networkId);
+    }
+
+    private void touch(Entry entry) {
+        evictionOrder.remove(entry);
+        insert(entry);
+    }
+
+    private void insert(Entry entry) {
+        entry.priority = inflation + entry.cost;
+        entry.sequence = sequence++;
+        evictionOrder.add(entry);
+    }
+
+    private void evict(Entry entry) {
+        evictionOrder.remove(entry);
+        Map<Pair<Vertex, Vertex>, Entry> networkEntries = entries.get(entry.network);
+        networkEntries.remove(entry.query);
+        if (networkEntries.isEmpty()) {
+            entries.remove(entry.network);
+        }
+        for (String networkId : entry.networkIds) {
+            Map<Pair<Vertex, Vertex>, Entry> networkLatest = latest.get(networkId);
+            networkLatest.remove(entry.query);
+            if (networkLatest.isEmpty()) {
+                latest.remove(networkId);
+            }
+        }
+        entry.networkIds.clear();
+        inflation = entry.priority;
+        counters.computeIfAbsent(entry.networkId, (n) -> new Counters()).evictions++;
+    }
+
+    private static final class Counters {
+
+        private long hits;
+        private long misses;
+        private long evictions;
+    }
+
+    private static final class Entry {
+
+        private final Network network;
+        private final Pair<Vertex, Vertex> query;
+        private final Set<String> networkIds;
+        private String networkId;
+        private long value;
+        private Flow flow;
+        private long cost;
+        private long priority;
+        private long sequence;
+
+        private Entry(Network network, Pair<Vertex, Vertex> query) {
+            this.network = network;
+            this.query = query;
+            this.networkIds = new HashSet<>();
+        }
+    }
+}
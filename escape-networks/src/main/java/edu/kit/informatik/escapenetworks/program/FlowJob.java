@@ -0,0 +1,166 @@
+package edu.kit.informatik.escapenetworks.program;
+
+import edu.kit.informatik.escapenetworks.network.Flow;
+import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A handle to a maximum flow computation that runs in the background.
+ * <p>
+ * Jobs are created and collected by {@link FlowJobs}. The computation runs on a worker thread and only produces
+ * the flow; the flow is added to the flow cache by the thread that collects the result.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see FlowJobs#submit(String, Set, Set)
+ */
+public final class FlowJob {
+
+    private final int id;
+    private final String networkId;
+    private final Network network;
+    private final Set<Vertex> sources;
+    private final Set<Vertex> sinks;
+    private Future<Long> value;
+    private Flow flow;
+    private long nanos;
+
+    private FlowJob(int id, String networkId, Network network, Set<Vertex> sources, Set<Vertex> sinks) {
+        this.id = id;
+        this.networkId = networkId;
+        this.network = network;
+        this.sources = sources;
+        this.sinks = sinks;
+    }
+
+    /**
+     * Creates a job whose result is already known.
+     *
+     * @param id        The id of the job.
+     * @param networkId The id of the network the flow is computed for.
+     * @param network   The network the flow is computed on.
+     * @param sources   The sources of the flow.
+     * @param sinks     The sinks of the flow.
+     * @param value     The value of the flow.
+     * @return A new, completed job.
+     */
+    static FlowJob completed(int id, String networkId, Network network, Set<Vertex> sources, Set<Vertex> sinks,
+                             long value) {
+        FlowJob job = new FlowJob(id, networkId, network, Set.copyOf(sources), Set.copyOf(sinks));
+        job.value = CompletableFuture.completedFuture(value);
+        return job;
+    }
+
+    /**
+     * Creates a job that computes a flow on one of the given workers.
+     *
+     * @param id          The id of the job.
+     * @param networkId   The id of the network the flow is computed for.
+     * @param network     The network the flow is computed on.
+     * @param sources     The sources of the flow.
+     * @param sinks       The sinks of the flow.
+     * @param workers     The executor to run the computation in.
+     * @param computation The computation of the flow.
+     * @return A new job whose computation has been submitted.
+     */
+    static FlowJob submit(int id, String networkId, Network network, Set<Vertex> sources, Set<Vertex> sinks,
+                          ExecutorService workers, Supplier<Flow> computation) {
+        FlowJob job = new FlowJob(id, networkId, network, Set.copyOf(sources), Set.copyOf(sinks));
+        job.value = workers.submit(() -> {
+            long start = System.nanoTime();
+            Flow result = computation.get();
+            // both fields are read after the future is done, which happens after they have been written
+            job.nanos = System.nanoTime() - start;
+            job.flow = result;
+            return result.getValue();
+        });
+        return job;
+    }
+
+    /**
+     * Returns the id this job is referred to by.
+     *
+     * @return The id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the id of the network the flow is computed for.
+     *
+     * @return The network id.
+     */
+    public String getNetworkId() {
+        return networkId;
+    }
+
+    /**
+     * Returns the vertices the flow starts from.
+     *
+     * @return An unmodifiable set of the sources.
+     */
+    public Set<Vertex> getSources() {
+        return sources;
+    }
+
+    /**
+     * Returns the vertices the flow ends on.
+     *
+     * @return An unmodifiable set of the sinks.
+     */
+    public Set<Vertex> getSinks() {
+        return sinks;
+    }
+
+    /**
+     * Returns whether the computation has finished, either with a result, with an error or by being cancelled.
+     *
+     * @return {@code true} if the computation is not running anymore.
+     */
+    public boolean isDone() {
+        return value.isDone();
+    }
+
+    /**
+     * Returns the future of the flow value.
+     *
+     * @return The future.
+     */
+    Future<Long> getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the network the flow is computed on.
+     *
+     * @return The network.
+     */
+    Network getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns the computed flow. Must only be called once the {@link #getValue() value} is available.
+     *
+     * @return The flow or {@code null} if the value was taken from the cache.
+     */
+    Flow getFlow() {
+        return flow;
+    }
+
+    /**
+     * Returns how long the computation took. Must only be called once the {@link #getValue() value} is available.
+     *
+     * @return The duration of the computation in nanoseconds.
+     */
+    long getNanos() {
+        return nanos;
+    }
+}
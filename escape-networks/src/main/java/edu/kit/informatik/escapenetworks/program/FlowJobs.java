@@ -0,0 +1,222 @@
+package edu.kit.informatik.escapenetworks.program;
+
+import edu.kit.informatik.escapenetworks.network.Flow;
+import edu.kit.informatik.escapenetworks.network.FlowAlgorithm;
+import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.util.Checks;
+import edu.kit.informatik.util.Pair;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs maximum flow computations of an {@link EscapeNetworkSystem} in the background, so that the system can
+ * be used while a large flow is computed.
+ * <p>
+ * A {@link #submit(String, Set, Set) submitted} computation runs on a pool of worker threads and is referred to
+ * by the id of its {@link FlowJob}. Its result can be {@link #poll(int) polled}, {@link #await(int, long) awaited}
+ * with a deadline, or the computation can be {@link #cancel(int) cancelled}. A computation that does not finish
+ * before the deadline it is awaited with is cancelled as well.
+ * <p>
+ * The workers only compute flows; the flow cache of the system is not touched by them. A result is added to the
+ * cache when it is collected by polling or awaiting the job, so cancelled and timed out computations never end up
+ * in the cache. Like the system, this class is not thread-safe and is meant to be used by a single thread.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see EscapeNetworkSystem#getFlowJobs()
+ */
+public final class FlowJobs {
+
+    private final EscapeNetworkSystem system;
+    private final ExecutorService workers;
+    private final Map<Integer, FlowJob> jobs;
+    private int nextId;
+
+    private FlowJobs(EscapeNetworkSystem system, ExecutorService workers) {
+        this.system = system;
+        this.workers = workers;
+        this.jobs = new HashMap<>();
+        this.nextId = 1;
+    }
+
+    /**
+     * Creates the background computations of a system with one worker thread per available processor.
+     * <p>
+     * The worker threads are daemon threads, so running computations do not keep the program alive.
+     *
+     * @param system The system whose flows are computed.
+     * @return A new instance without any jobs.
+     */
+    static FlowJobs create(EscapeNetworkSystem system) {
+        ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+            (runnable) -> {
+                Thread thread = new Thread(runnable, "flow-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        return new FlowJobs(system, workers);
+    }
+
+    /**
+     * Starts computing the maximum flow from any of the {@code sources} to any of the {@code sinks} in the network
+     * associated with {@code networkId} in the background.
+     * <p>
+     * The flow is computed like in {@link EscapeNetworkSystem#computeMaxFlow(String, Set, Set)}: the value of a flow
+     * between a single source and sink that is already cached is available right away and computations resume
+     * from the kept flow of a previous version of the network.
+     *
+     * @param networkId The id of the network to use for flow.
+     * @param sources   The sources of the flow.
+     * @param sinks     The sinks of the flow.
+     * @return The job computing the flow.
+     * @throws NullPointerException     if any of the arguments or vertices is {@code null}.
+     * @throws IllegalArgumentException if the network is not registered, if one of the sets is empty or contains
+     *                                  a vertex that is not a valid source/sink for the network.
+     */
+    public FlowJob submit(String networkId, Set<Vertex> sources, Set<Vertex> sinks) {
+        Checks.notNull(sources, "Sources");
+        Checks.notNull(sinks, "Sinks");
+        Optional<Network> registered = system.findNetwork(networkId);
+        Checks.argument(registered.isPresent(), "Network " + networkId + " is not registered");
+        Checks.argument(!sources.isEmpty(), "There must be at least one source");
+        Checks.argument(!sinks.isEmpty(), "There must be at least one sink");
+        Network network = registered.get();
+        for (Vertex source : sources) {
+            for (Vertex sink : sinks) {
+                EscapeNetworkSystem.validateQuery(network, Pair.of(source, sink));
+            }
+        }
+
+        int id = nextId++;
+        FlowAlgorithm algorithm = system.getSolverRegistry().getDefault().select(network);
+        FlowJob job;
+        if (sources.size() == 1 && sinks.size() == 1) {
+            Pair<Vertex, Vertex> query = Pair.of(sources.iterator().next(), sinks.iterator().next());
+            FlowCache cache = system.getFlowCache();
+            Long cached = cache.getValue(networkId, network, query);
+            Flow previous = cached == null ? cache.getFlow(networkId, network, query) : null;
+            job = cached != null
+                    ? FlowJob.completed(id, networkId, network, sources, sinks, cached)
+                    : FlowJob.submit(id, networkId, network, sources, sinks, workers, () -> previous == null
+                            ? Flow.compute(network, query.getLeft(), query.getRight(), algorithm)
+                            : Flow.resume(previous, network, algorithm));
+        } else {
+            job = FlowJob.submit(id, networkId, network, sources, sinks, workers,
+                () -> Flow.compute(network, sources, sinks, algorithm));
+        }
+        jobs.put(id, job);
+        return job;
+    }
+
+    /**
+     * Looks up a job that has not been collected or cancelled yet.
+     *
+     * @param jobId The id of the job.
+     * @return The job or the empty optional if there is no such job.
+     */
+    public Optional<FlowJob> find(int jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Returns the value of the flow computed by a job if the computation has finished, without waiting for it.
+     * <p>
+     * Once the value has been returned, the job is collected: its flow is added to the cache and the job is removed.
+     *
+     * @param jobId The id of the job.
+     * @return The value of the flow or the empty optional if the computation is still running.
+     * @throws IllegalArgumentException if there is no job with the given id.
+     * @throws IllegalStateException    if the computation has failed. The job is removed then.
+     */
+    public OptionalLong poll(int jobId) {
+        return getJob(jobId).isDone() ? await(jobId, 0) : OptionalLong.empty();
+    }
+
+    /**
+     * Waits for the computation of a job to finish and returns the value of its flow.
+     * <p>
+     * If the computation does not finish within the given time, it is cancelled and the job is removed.
+     * Otherwise, the job is collected like in {@link #poll(int)}.
+     *
+     * @param jobId         The id of the job.
+     * @param timeoutMillis The maximum time to wait in milliseconds.
+     * @return The value of the flow or the empty optional if the computation has timed out.
+     * @throws IllegalArgumentException if there is no job with the given id or if the timeout is negative.
+     * @throws IllegalStateException    if the computation has failed or if the waiting thread was interrupted.
+     *                                  The job is removed if it has failed and cancelled if the thread was
+     *                                  interrupted before the computation finished.
+     */
+    public OptionalLong await(int jobId, long timeoutMillis) {
+        Checks.argument(timeoutMillis >= 0, "Timeout must not be negative");
+        FlowJob job = getJob(jobId);
+        long value;
+        try {
+            value = job.getValue().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the computation may have finished right after the deadline
+            return cancel(jobId) ? OptionalLong.empty() : await(jobId, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // a finished job is left untouched, so that its result can still be polled
+            throw new IllegalStateException(cancel(jobId)
+                    ? "Waiting for flow job " + jobId + " was interrupted; the job was cancelled"
+                    : "Waiting for flow job " + jobId + " was interrupted", e);
+        } catch (ExecutionException e) {
+            jobs.remove(jobId);
+            // the cause is wrapped so that it cannot be mistaken for an invalid job id
+            String reason = e.getCause().getMessage();
+            throw new IllegalStateException("Flow job " + jobId + " failed" + (reason == null ? "" : ": " + reason),
+                    e.getCause());
+        }
+        jobs.remove(jobId);
+        collect(job);
+        return OptionalLong.of(value);
+    }
+
+    private void collect(FlowJob job) {
+        Flow flow = job.getFlow();
+        Network network = job.getNetwork();
+        // flows between several sources or sinks are not cached, neither are flows on replaced networks
+        if (flow == null || job.getSources().size() > 1 || job.getSinks().size() > 1
+                || system.findNetwork(job.getNetworkId()).orElse(null) != network) {
+            return;
+        }
+        Pair<Vertex, Vertex> query = Pair.of(flow.getSource(), flow.getSink());
+        system.getFlowCache().put(job.getNetworkId(), network, query, flow.getValue(), flow, job.getNanos());
+    }
+
+    /**
+     * Cancels the computation of a job and removes the job.
+     * <p>
+     * The worker computing the flow is interrupted and stops soon after. Nothing is added to the cache.
+     * If the computation has already finished, the job is left untouched, so that its result can still be collected.
+     *
+     * @param jobId The id of the job.
+     * @return {@code true} if the computation has been cancelled, {@code false} if it had already finished.
+     * @throws IllegalArgumentException if there is no job with the given id.
+     */
+    public boolean cancel(int jobId) {
+        FlowJob job = getJob(jobId);
+        if (!job.getValue().cancel(true)) {
+            return false;
+        }
+        jobs.remove(jobId);
+        return true;
+    }
+
+    private FlowJob getJob(int jobId) {
+        FlowJob job = jobs.get(jobId);
+        Checks.argument(job != null, "Flow job " + jobId + " does not exist");
+        return job;
+    }
+}
@@ -1,13 +1,27 @@
 package edu.kit.informatik.escapenetworks.program;
 
+import edu.kit.informatik.Terminal;
 import edu.kit.informatik.cli.Command;
 import edu.kit.informatik.cli.TerminalSession;
 import edu.kit.informatik.escapenetworks.program.commands.AddCommand;
+import edu.kit.informatik.escapenetworks.program.commands.CacheCommand;
+import edu.kit.informatik.escapenetworks.program.commands.CancelCommand;
+import edu.kit.informatik.escapenetworks.program.commands.CutCommand;
 import edu.kit.informatik.escapenetworks.program.commands.FlowCommand;
+import edu.kit.informatik.escapenetworks.program.commands.FlowsCommand;
+import edu.kit.informatik.escapenetworks.program.commands.ImportCommand;
 import edu.kit.informatik.escapenetworks.program.commands.ListCommand;
+import edu.kit.informatik.escapenetworks.program.commands.LoadCommand;
+import edu.kit.informatik.escapenetworks.program.commands.PollCommand;
 import edu.kit.informatik.escapenetworks.program.commands.PrintCommand;
 import edu.kit.informatik.escapenetworks.program.commands.QuitCommand;
+import edu.kit.informatik.escapenetworks.program.commands.RoutesCommand;
+import edu.kit.informatik.escapenetworks.program.commands.SaveCommand;
+import edu.kit.informatik.escapenetworks.program.commands.SubmitCommand;
+import edu.kit.informatik.escapenetworks.program.commands.WaitCommand;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 
 /**
@@ -19,22 +33,57 @@ import java.util.Map;
 public class Main {
 
     private static final char ARG_DELIMITER = ' ';
+    private static final String CACHE_CAPACITY_PROPERTY = "escapenetworks.cache.capacity";
+    private static final String DATA_DIRECTORY_PROPERTY = "escapenetworks.data.dir";
 
     /**
      * The entry point of the program.
+     * <p>
+     * The capacity of the flow cache can be set with the system property {@value CACHE_CAPACITY_PROPERTY}.
+     * If it is not positive, an error is printed and the default capacity is used.
+     * If the system property {@value DATA_DIRECTORY_PROPERTY} is set, the state saved in that directory is restored
+     * and all additions are recorded there in a {@link MutationLog}.
      *
      * @param args The input arguments. Should be empty.
      */
     public static void main(String[] args) {
-        EscapeNetworkSystem system = new EscapeNetworkSystem();
-        Map<String, Command<EscapeNetworkSystem>> commands = Map.of(
-                "add", new AddCommand(),
-                "flow", new FlowCommand(),
-                "list", new ListCommand(),
-                "print", new PrintCommand(),
-                "quit", new QuitCommand()
+        int cacheCapacity = Integer.getInteger(CACHE_CAPACITY_PROPERTY,
+                EscapeNetworkSystem.DEFAULT_FLOW_CACHE_CAPACITY);
+        if (cacheCapacity <= 0) {
+            Terminal.printError("Invalid flow cache capacity " + cacheCapacity + "; using the default capacity "
+                    + EscapeNetworkSystem.DEFAULT_FLOW_CACHE_CAPACITY);
+            cacheCapacity = EscapeNetworkSystem.DEFAULT_FLOW_CACHE_CAPACITY;
+        }
+        EscapeNetworkSystem system = new EscapeNetworkSystem(cacheCapacity);
+        Map<String, Command<EscapeNetworkSystem>> commands = Map.ofEntries(
+                Map.entry("add", new AddCommand()),
+                Map.entry("cache", new CacheCommand()),
+                Map.entry("cancel", new CancelCommand()),
+                Map.entry("cut", new CutCommand()),
+                Map.entry("flow", new FlowCommand()),
+                Map.entry("flows", new FlowsCommand()),
+                Map.entry("import", new ImportCommand()),
+                Map.entry("list", new ListCommand()),
+                Map.entry("load", new LoadCommand()),
+                Map.entry("poll", new PollCommand()),
+                Map.entry("print", new PrintCommand()),
+                Map.entry("quit", new QuitCommand()),
+                Map.entry("routes", new RoutesCommand()),
+                Map.entry("save", new SaveCommand()),
+                Map.entry("submit", new SubmitCommand()),
+                Map.entry("wait", new WaitCommand())
         );
         TerminalSession<EscapeNetworkSystem> session = new TerminalSession<>(system, commands, ARG_DELIMITER);
-        session.run();
+        String dataDirectory = System.getProperty(DATA_DIRECTORY_PROPERTY);
+        if (dataDirectory == null) {
+            session.run();
+            return;
+        }
+        try (MutationLog log = MutationLog.open(Path.of(dataDirectory), system)) {
+            system.setMutationLog(log);
+            session.run();
+        } catch (IOException e) {
+            Terminal.printError("Could not use data directory " + dataDirectory + ": " + e.getMessage());
+        }
     }
 }
@@ -0,0 +1,323 @@
+package edu.kit.informatik.escapenetworks.program;
+
+import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.map.MappingException;
+import edu.kit.informatik.util.Checks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only write-ahead log of the networks and sections added to an {@link EscapeNetworkSystem},
+ * kept in a data directory together with a {@link Snapshot}.
+ * <p>
+ * Every record consists of a network identifier and the sections added to it, in the same notation as the
+ * arguments of the {@code add} command. Records are framed by their length and a CRC32 checksum:
+ * <pre>
+ * record: int length, int checksum, length * byte (ASCII "&lt;network&gt; &lt;sections&gt;")
+ * </pre>
+ * The log starts with a header that holds the generation of the snapshot the log is based on:
+ * <pre>
+ * header: int magic, long generation
+ * </pre>
+ * Records are written to the file immediately, but flushed to the storage device in groups (group commit):
+ * either when {@link #SYNC_BATCH_SIZE} records are pending or at the latest after {@link #SYNC_INTERVAL_MILLIS}.
+ * A crash of the process therefore loses nothing, a crash of the operating system at most the last few
+ * records. A record that could only be written in part is removed again. If that fails or if flushing fails,
+ * records may have been lost, so the log rejects all further operations. Once the log contains
+ * {@link #COMPACTION_THRESHOLD} records, the whole registry is written to the snapshot with the next generation
+ * and the log starts over with that generation. The snapshot is durable before the log is emptied.
+ * <p>
+ * On {@link #open(Path, EscapeNetworkSystem) opening}, the snapshot is loaded and the log is replayed on top of it.
+ * If the log is based on an older generation than the snapshot, the process crashed after writing the snapshot but
+ * before the log was emptied. All of its records are part of the snapshot then, so they are discarded instead of
+ * being replayed. Logs without a header are treated as generation 0. A torn record at the end of the log
+ * is discarded.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public final class MutationLog implements Closeable {
+
+    /**
+     * The number of pending records that triggers a flush to the storage device.
+     */
+    public static final int SYNC_BATCH_SIZE = 64;
+
+    /**
+     * The maximum time in milliseconds a record stays pending before it is flushed to the storage device.
+     */
+    public static final long SYNC_INTERVAL_MILLIS = 200;
+
+    /**
+     * The number of records after which the log is compacted into the snapshot.
+     */
+    public static final int COMPACTION_THRESHOLD = 10_000;
+
+    private static final String SNAPSHOT_FILE = "registry.snapshot";
+    private static final String LOG_FILE = "mutations.log";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int LOG_MAGIC = 0x4d4c4f47;
+    private static final int LOG_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final EscapeNetworkSystem system;
+    private final Path snapshotFile;
+    private final FileChannel channel;
+    private final ScheduledExecutorService syncer;
+    private long generation;
+    private int records;
+    private int pendingSyncs;
+    private IOException failure;
+
+    private MutationLog(EscapeNetworkSystem system, Path snapshotFile, FileChannel channel, long generation,
+                        int records) {
+        this.system = system;
+        this.snapshotFile = snapshotFile;
+        this.channel = channel;
+        this.generation = generation;
+        this.records = records;
+        this.syncer = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "mutation-log-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.syncer.scheduleWithFixedDelay(this::syncQuietly,
+                SYNC_INTERVAL_MILLIS, SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the log in the given data directory, restoring the state saved there into the given system.
+     * <p>
+     * The directory is created if it does not exist.
+     *
+     * @param directory The data directory.
+     * @param system    The system to restore the state into and to compact into the snapshot.
+     * @return The opened log, ready to {@link #append(String, String) append} records.
+     * @throws IOException          if the directory, the snapshot or the log cannot be read or written.
+     * @throws NullPointerException if one of the arguments is {@code null}.
+     */
+    public static MutationLog open(Path directory, EscapeNetworkSystem system) throws IOException {
+        Checks.notNull(directory, "Directory");
+        Checks.notNull(system, "System");
+        Files.createDirectories(directory);
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        long generation = 0;
+        if (Files.exists(snapshotFile)) {
+            Snapshot.read(snapshotFile, system);
+            generation = Snapshot.readGeneration(snapshotFile);
+        }
+        FileChannel channel = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int records;
+        try {
+            records = replay(channel, system, generation);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new MutationLog(system, snapshotFile, channel, generation, records);
+    }
+
+    private static int replay(FileChannel channel, EscapeNetworkSystem system, long generation)
+            throws IOException {
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        long logGeneration = 0;
+        if (buffer.remaining() >= LOG_HEADER_BYTES && buffer.getInt(0) == LOG_MAGIC) {
+            buffer.getInt();
+            logGeneration = buffer.getLong();
+        }
+        if (logGeneration > generation) {
+            throw new IOException("Log generation " + logGeneration + " is newer than the snapshot");
+        } else if (logGeneration < generation || channel.size() == 0) {
+            // the records of an older generation are already part of the snapshot
+            reset(channel, generation);
+            return 0;
+        }
+        CRC32 checksum = new CRC32();
+        int records = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int expected = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            checksum.reset();
+            checksum.update(payload);
+            if ((int) checksum.getValue() != expected) {
+                buffer.position(start);
+                break;
+            }
+            apply(system, new String(payload, StandardCharsets.US_ASCII));
+            records++;
+        }
+        // discard a torn record left behind by a crash while appending
+        channel.truncate(buffer.position());
+        channel.position(buffer.position());
+        return records;
+    }
+
+    private static void reset(FileChannel channel, long generation) throws IOException {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES).putInt(LOG_MAGIC).putLong(generation).flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+    }
+
+    private static void apply(EscapeNetworkSystem system, String record) throws IOException {
+        int separator = record.indexOf(' ');
+        String networkId = record.substring(0, Math.max(separator, 0));
+        Optional<Network> existing = system.findNetwork(networkId);
+        try {
+            Network network = existing.isPresent()
+                    ? existing.get().update(Mapping.SECTIONS_MAPPER.apply(system, record.substring(separator + 1)))
+                    : Mapping.NETWORK_MAPPER.apply(system, record.substring(separator + 1));
+            system.registerNetwork(networkId, network);
+        } catch (MappingException | IllegalArgumentException e) {
+            throw new IOException("Invalid log record " + record + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Appends a record of sections added to a network.
+     * <p>
+     * This should be called after the addition has been validated, but before it becomes visible in the system.
+     * The record is written to the file before this method returns, the flush to the storage device happens in
+     * groups. May compact the log into the snapshot.
+     *
+     * @param networkId The identifier of the network.
+     * @param sections  The added sections, separated by {@code ;}.
+     * @throws IOException          if the record cannot be written or if writing or flushing has failed before.
+     * @throws NullPointerException if one of the arguments is {@code null}.
+     */
+    public synchronized void append(String networkId, String sections) throws IOException {
+        Checks.notNull(networkId, "Network identifier");
+        Checks.notNull(sections, "Sections");
+        checkFailure();
+        byte[] payload = (networkId + " " + sections).getBytes(StandardCharsets.US_ASCII);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) checksum.getValue())
+                .put(payload)
+                .flip();
+        long start = channel.position();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            discard(start, e);
+            throw e;
+        }
+        records++;
+        pendingSyncs++;
+        if (pendingSyncs >= SYNC_BATCH_SIZE) {
+            sync();
+        }
+    }
+
+    private void discard(long position, IOException cause) {
+        // a torn record would end the replay early and hide all records appended after it
+        try {
+            channel.truncate(position);
+            channel.position(position);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            failure = cause;
+        }
+    }
+
+    /**
+     * Writes the current state of the system to the snapshot and empties the log if the log has reached the
+     * {@link #COMPACTION_THRESHOLD compaction threshold}.
+     * <p>
+     * This must be called after the record {@link #append(String, String) appended} last has been applied
+     * to the system, otherwise that record would be lost.
+     *
+     * @throws IOException if the snapshot cannot be written or the log cannot be truncated.
+     */
+    public synchronized void compactIfNecessary() throws IOException {
+        if (records >= COMPACTION_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes the current state of the system to the snapshot and empties the log.
+     * <p>
+     * The snapshot is written with the next generation before the log is emptied, so if the log cannot be
+     * emptied, its records are not replayed on top of the new snapshot.
+     *
+     * @throws IOException if the snapshot cannot be written or the log cannot be truncated.
+     */
+    public synchronized void compact() throws IOException {
+        sync();
+        Snapshot.write(system, snapshotFile, generation + 1);
+        generation++;
+        reset(channel, generation);
+        records = 0;
+    }
+
+    /**
+     * Flushes all pending records to the storage device.
+     *
+     * @throws IOException if flushing fails or if writing or flushing has failed before.
+     */
+    public synchronized void sync() throws IOException {
+        checkFailure();
+        if (pendingSyncs > 0) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                // the pages that could not be written may have been dropped, so a retry could succeed without them
+                failure = e;
+                throw e;
+            }
+            pendingSyncs = 0;
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // the failure has been recorded and is reported by the next append, sync or close
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Records may have been lost, the mutation log cannot be used anymore", failure);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        syncer.shutdownNow();
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package edu.kit.informatik.escapenetworks.program;
+
+import edu.kit.informatik.escapenetworks.network.Edge;
+import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.network.NetworkBuilder;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.network.VertexTable;
+import edu.kit.informatik.util.Checks;
+import edu.kit.informatik.util.Pair;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Saves and loads the registered networks and cached flow values of an {@link EscapeNetworkSystem}
+ * in a compact binary file.
+ * <p>
+ * A snapshot starts with a header ({@link #MAGIC}, {@link #VERSION}), followed by a table of all vertex
+ * identifiers that occur in any network. Networks refer to vertices by their index in that table:
+ * <pre>
+ * header:   int magic, int version, long generation
+ * vertices: int count, count * (byte length, ASCII identifier)
+ * networks: int count, count * network
+ * network:  byte length, ASCII identifier,
+ *           int edges, edges * (int from, int to, int capacity),
+ *           int flows, flows * (int source, int sink, long value)
+ *           | byte length, ASCII identifier, int -(index + 1)
+ * </pre>
+ * Networks must consist of more than one edge and cached flow values must belong to a valid source and sink
+ * and must not exceed the capacity leaving the source or entering the sink; snapshots that violate this are rejected.
+ * Networks that are equal to a network written before them, i.e. networks that are shared by several identifiers,
+ * are only written once: instead of the edge count, they refer to the index of that network, and share its flows.
+ * Snapshots of version 1 do not contain such references. The generation is only used by the {@link MutationLog}
+ * to tell which records are already part of the snapshot; snapshots before version 3 do not contain it.
+ * All numbers are big-endian. Snapshots are read through a memory-mapped buffer, which avoids copying the file
+ * into the heap before decoding it. The kept flows used to resume computations are not part of a snapshot.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public final class Snapshot {
+
+    /**
+     * The first four bytes of every snapshot file.
+     */
+    public static final int MAGIC = 0x45534e57;
+
+    /**
+     * The version of the snapshot format written by this class.
+     */
+    public static final int VERSION = 3;
+
+    private Snapshot() {
+
+    }
+
+    /**
+     * Writes a snapshot of the registered networks and cached flows of a system to a file with generation 0.
+     * <p>
+     * The snapshot is written to a temporary file first that is flushed to the storage device and then replaces
+     * the target file, so an existing snapshot is not corrupted if writing fails or the system crashes.
+     * The directory is synced after the replacement, so once this method returns, the snapshot is durable.
+     * A replaced snapshot keeps its permissions, a new one gets the default permissions of new files.
+     *
+     * @param system The system to save.
+     * @param file   The file to write to.
+     * @return The number of networks written.
+     * @throws IOException          if the file cannot be written.
+     * @throws NullPointerException if one of the arguments is {@code null}.
+     */
+    public static int write(EscapeNetworkSystem system, Path file) throws IOException {
+        return write(system, file, 0);
+    }
+
+    /**
+     * Writes a snapshot of the registered networks and cached flows of a system to a file.
+     *
+     * @param system     The system to save.
+     * @param file       The file to write to.
+     * @param generation The generation to record in the snapshot.
+     * @return The number of networks written.
+     * @throws IOException          if the file cannot be written.
+     * @throws NullPointerException if one of the arguments is {@code null}.
+     * @see #write(EscapeNetworkSystem, Path)
+     */
+    public static int write(EscapeNetworkSystem system, Path file, long generation) throws IOException {
+        Checks.notNull(system, "System");
+        Checks.notNull(file, "File");
+        Map<String, Network> networks = system.getRegisteredNetworks();
+        Map<Vertex, Integer> vertexTable = new LinkedHashMap<>();
+        for (Network network : networks.values()) {
+            for (Vertex vertex : network.getGraph().getVertices()) {
+                vertexTable.putIfAbsent(vertex, vertexTable.size());
+            }
+        }
+
+        Path absolute = file.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(vertexTable.size());
+            for (Vertex vertex : vertexTable.keySet()) {
+                writeString(out, vertex.getIdentifier());
+            }
+            out.writeInt(networks.size());
+            Map<Network, Integer> written = new HashMap<>();
+            for (Map.Entry<String, Network> entry : networks.entrySet()) {
+                String networkId = entry.getKey();
+                Network network = entry.getValue();
+                Integer index = written.putIfAbsent(network, written.size());
+                if (index == null) {
+                    writeNetwork(out, networkId, network, system.getCachedFlows(networkId), vertexTable);
+                } else {
+                    writeString(out, networkId);
+                    out.writeInt(-(index + 1));
+                }
+            }
+            out.flush();
+            channel.force(true);
+            copyPermissions(absolute, temporary);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(absolute.getParent());
+        return networks.size();
+    }
+
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        if (Files.exists(source)
+                && Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        }
+    }
+
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // some platforms cannot open directories; renames do not need to be synced there
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private static void writeNetwork(DataOutputStream out, String networkId, Network network,
+                                     Map<Pair<Vertex, Vertex>, Long> flows, Map<Vertex, Integer> vertexTable)
+            throws IOException {
+        writeString(out, networkId);
+        Set<Edge> edges = network.getGraph().getEdges();
+        out.writeInt(edges.size());
+        for (Edge edge : edges) {
+            out.writeInt(vertexTable.get(edge.getFrom()));
+            out.writeInt(vertexTable.get(edge.getTo()));
+            out.writeInt(network.getCapacity(edge));
+        }
+        out.writeInt(flows.size());
+        for (Map.Entry<Pair<Vertex, Vertex>, Long> flow : flows.entrySet()) {
+            out.writeInt(vertexTable.get(flow.getKey().getLeft()));
+            out.writeInt(vertexTable.get(flow.getKey().getRight()));
+            out.writeLong(flow.getValue());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.US_ASCII);
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a snapshot from a file and registers its networks and cached flows in a system.
+     * <p>
+     * The whole snapshot is decoded and validated before anything is registered. Networks that are already
+     * registered under an identifier contained in the snapshot are replaced.
+     *
+     * @param file   The file to read from.
+     * @param system The system to register the networks in.
+     * @return The number of networks read.
+     * @throws IOException          if the file cannot be read or is not a valid snapshot.
+     * @throws NullPointerException if one of the arguments is {@code null}.
+     */
+    public static int read(Path file, EscapeNetworkSystem system) throws IOException {
+        Checks.notNull(file, "File");
+        Checks.notNull(system, "System");
+        Map<String, Network> networks = new LinkedHashMap<>();
+        Map<String, Map<Pair<Vertex, Vertex>, Long>> flows = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            readSnapshot(buffer, system.getVertexTable(), networks, flows);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot is truncated", e);
+        }
+
+        for (Map.Entry<String, Network> entry : networks.entrySet()) {
+            String networkId = entry.getKey();
+            system.registerNetwork(networkId, entry.getValue());
+            Network network = system.getRegisteredNetworks().get(networkId);
+            flows.get(networkId).forEach((query, value) ->
+                    system.getFlowCache().put(networkId, network, query, value, null, 0));
+        }
+        return networks.size();
+    }
+
+    /**
+     * Reads the generation recorded in a snapshot file.
+     *
+     * @param file The file to read from.
+     * @return The generation or 0 if the snapshot was written before generations were recorded.
+     * @throws IOException          if the file cannot be read or is not a valid snapshot.
+     * @throws NullPointerException if the file is {@code null}.
+     */
+    public static long readGeneration(Path file) throws IOException {
+        Checks.notNull(file, "File");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return readVersion(buffer) >= 3 ? buffer.getLong() : 0;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot is truncated", e);
+        }
+    }
+
+    private static int readVersion(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file");
+        }
+        int version = buffer.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        return version;
+    }
+
+    private static void readSnapshot(ByteBuffer buffer, VertexTable vertices, Map<String, Network> networks,
+                                     Map<String, Map<Pair<Vertex, Vertex>, Long>> flows) throws IOException {
+        int version = readVersion(buffer);
+        if (version >= 3) {
+            // the generation is only of interest to the mutation log
+            buffer.getLong();
+        }
+        Vertex[] vertexTable = new Vertex[readCount(buffer)];
+        for (int i = 0; i < vertexTable.length; i++) {
+            String identifier = readString(buffer);
+            if (!EscapeNetworkSystem.VERTEX_NAME_PATTERN.matcher(identifier).matches()) {
+                throw new IOException("Illegal vertex identifier " + identifier);
+            }
+            vertexTable[i] = vertices.intern(identifier);
+        }
+        int[] localIndices = new int[vertexTable.length];
+        Arrays.fill(localIndices, -1);
+        int networkCount = readCount(buffer);
+        List<Network> distinct = new ArrayList<>();
+        for (int i = 0; i < networkCount; i++) {
+            String networkId = readString(buffer);
+            if (!EscapeNetworkSystem.NETWORK_NAME_PATTERN.matcher(networkId).matches()
+                    || networks.containsKey(networkId)) {
+                throw new IOException("Illegal or duplicate network identifier " + networkId);
+            }
+            int edgeCount = buffer.getInt();
+            if (edgeCount < 0 && version > 1) {
+                int index = -(edgeCount + 1);
+                if (index >= distinct.size()) {
+                    throw new IOException("Network " + networkId + " refers to unknown network " + index);
+                }
+                networks.put(networkId, distinct.get(index));
+                flows.put(networkId, Map.of());
+                continue;
+            } else if (edgeCount < 0) {
+                throw new IOException("Negative count " + edgeCount);
+            }
+            if (edgeCount < EscapeNetworkSystem.MIN_SECTIONS) {
+                throw new IOException("Network " + networkId + " must consist of more than one edge");
+            }
+            Network network = readNetwork(buffer, networkId, edgeCount, vertexTable, localIndices);
+            distinct.add(network);
+            networks.put(networkId, network);
+            int flowCount = readCount(buffer);
+            Map<Pair<Vertex, Vertex>, Long> networkFlows = new HashMap<>(flowCount * 2);
+            for (int j = 0; j < flowCount; j++) {
+                Pair<Vertex, Vertex> query = Pair.of(readVertex(buffer, vertexTable), readVertex(buffer, vertexTable));
+                long value = buffer.getLong();
+                validateFlow(networkId, network, query, value);
+                networkFlows.put(query, value);
+            }
+            flows.put(networkId, networkFlows);
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Unexpected data after the last network");
+        }
+    }
+
+    private static Network readNetwork(ByteBuffer buffer, String networkId, int edgeCount, Vertex[] vertexTable,
+                                       int[] localIndices) throws IOException {
+        if ((long) edgeCount * 3 * Integer.BYTES > buffer.remaining()) {
+            throw new IOException("Snapshot is truncated");
+        }
+        LocalVertices vertices = new LocalVertices(vertexTable, localIndices, edgeCount);
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        int[] capacities = new int[edgeCount];
+        try {
+            for (int i = 0; i < edgeCount; i++) {
+                from[i] = vertices.indexOf(readIndex(buffer, vertexTable));
+                to[i] = vertices.indexOf(readIndex(buffer, vertexTable));
+                capacities[i] = buffer.getInt();
+            }
+            return NetworkBuilder.fromIndices(vertices.toArray(), from, to, capacities);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Snapshot contains an invalid network " + networkId + ": " + e.getMessage(), e);
+        } finally {
+            vertices.release();
+        }
+    }
+
+    private static void validateFlow(String networkId, Network network, Pair<Vertex, Vertex> query, long value)
+            throws IOException {
+        try {
+            EscapeNetworkSystem.validateQuery(network, query);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Snapshot contains an invalid flow in network " + networkId + ": "
+                    + e.getMessage(), e);
+        }
+        // the sections leaving the source and the sections entering the sink are both cuts
+        long sourceCapacity = 0;
+        for (Edge edge : network.getGraph().getOutgoingEdges(query.getLeft())) {
+            sourceCapacity += network.getCapacity(edge);
+        }
+        long sinkCapacity = 0;
+        for (Edge edge : network.getGraph().getIncomingEdges(query.getRight())) {
+            sinkCapacity += network.getCapacity(edge);
+        }
+        if (value < 0 || value > Math.min(sourceCapacity, sinkCapacity)) {
+            throw new IOException("Snapshot contains an impossible flow value " + value + " in network " + networkId);
+        }
+    }
+
+    private static Vertex readVertex(ByteBuffer buffer, Vertex[] vertexTable) throws IOException {
+        return vertexTable[readIndex(buffer, vertexTable)];
+    }
+
+    private static int readIndex(ByteBuffer buffer, Vertex[] vertexTable) throws IOException {
+        int index = buffer.getInt();
+        if (index < 0 || index >= vertexTable.length) {
+            throw new IOException("Vertex index " + index + " out of range");
+        }
+        return index;
+    }
+
+    private static int readCount(ByteBuffer buffer) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new IOException("Negative count " + count);
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(buffer.get())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Numbers the vertices of a single network in the order they occur, so that building the network
+     * does not depend on the size of the vertex table.
+     */
+    private static final class LocalVertices {
+
+        private final Vertex[] vertexTable;
+        private final int[] localIndices;
+        private final int[] tableIndices;
+        private int count;
+
+        private LocalVertices(Vertex[] vertexTable, int[] localIndices, int edgeCount) {
+            this.vertexTable = vertexTable;
+            this.localIndices = localIndices;
+            this.tableIndices = new int[(int) Math.min(2L * edgeCount, vertexTable.length)];
+        }
+
+        private int indexOf(int tableIndex) {
+            if (localIndices[tableIndex] < 0) {
+                localIndices[tableIndex] = count;
+                tableIndices[count++] = tableIndex;
+            }
+            return localIndices[tableIndex];
+        }
+
+        private Vertex[] toArray() {
+            Vertex[] vertices = new Vertex[count];
+            for (int i = 0; i < count; i++) {
+                vertices[i] = vertexTable[tableIndices[i]];
+            }
+            return vertices;
+        }
+
+        private void release() {
+            // the array of local indices is shared by all networks of the snapshot
+            for (int i = 0; i < count; i++) {
+                localIndices[tableIndices[i]] = -1;
+            }
+        }
+    }
+}
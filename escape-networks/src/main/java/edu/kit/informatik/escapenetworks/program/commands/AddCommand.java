@@ -5,7 +5,6 @@ import edu.kit.informatik.cli.Command;
 import edu.kit.informatik.cli.SemanticException;
 import edu.kit.informatik.cli.TerminalSession;
 import edu.kit.informatik.escapenetworks.network.Edge;
-import edu.kit.informatik.escapenetworks.network.Graph;
 import edu.kit.informatik.escapenetworks.network.Network;
 import edu.kit.informatik.parser.ArgumentParser;
 import edu.kit.informatik.parser.Arguments;
@@ -13,13 +12,21 @@ import edu.kit.informatik.parser.ParsingException;
 import edu.kit.informatik.escapenetworks.program.Display;
 import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
 import edu.kit.informatik.escapenetworks.program.EscapeSection;
+import edu.kit.informatik.escapenetworks.program.MutationLog;
 import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
 import edu.kit.informatik.util.Checks;
 
+import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Command to add new networks to the system or add escape sections to existing escape networks in the system.
+ * <p>
+ * Any number of sections can be added to an existing network at once. They are validated together against the
+ * network, so the sections do not have to form a valid network on their own.
+ * <p>
+ * If the system has a {@link MutationLog}, every addition is recorded there before it is applied.
  *
  * @author JohnnyJayJay
  * @version 1.0.0
@@ -32,35 +39,74 @@ public class AddCommand implements Command<EscapeNetworkSystem> {
             .param("network", Mapping.NETWORK_MAPPER)
             .build();
 
+    private static final ArgumentParser<EscapeNetworkSystem> SECTIONS_PARSER
+            = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("identifier", Mapping.NETWORK_ID_STAGE.thenValidate(Mapping.REGISTERED_NETWORK_ID_CONSTRAINT))
+            .param("sections", Mapping.SECTIONS_MAPPER)
+            .build();
+
     @Override
     public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
             throws SemanticException, ParsingException {
         EscapeNetworkSystem env = session.getEnvironment();
+        if (args.length == 2 && env.findNetwork(args[0]).isPresent()) {
+            addSections(env, SECTIONS_PARSER.parse(env, args), args[1]);
+            return;
+        }
         Arguments arguments = NETWORK_PARSER.parse(env, args);
         String identifier = arguments.get("identifier", String.class);
-        Network changes = arguments.get("network", Network.class);
-        Optional<Network> existingNetwork = env.findNetwork(identifier);
-        if (existingNetwork.isPresent()) {
-            Network network = existingNetwork.get();
-            Graph graph = changes.getGraph();
-            Checks.validate(graph.getEdges().size() == 1,
-                () -> new SemanticException("you may only add one section at a time"));
-            Edge newEdge = graph.getEdges().iterator().next();
-            int capacity = changes.getCapacity(newEdge);
-            Network updated = Checks.wrapIllegalArgumentException(
-                () -> network.update(newEdge, capacity),
-                (e) -> new SemanticException(e.getMessage(), e)
-            );
-            env.invalidateFlowCache(identifier);
-            env.registerNetwork(identifier, updated);
-            Terminal.printLine("Added new section " + Display.stringify(EscapeSection.of(newEdge, capacity))
+        Network network = arguments.get("network", Network.class);
+        Checks.validate(network.getGraph().getEdges().size() >= EscapeNetworkSystem.MIN_SECTIONS,
+            () -> new SemanticException("networks must consist of more than one edge"));
+        log(env, identifier, args[1]);
+        env.registerNetwork(identifier, network);
+        compactLog(env);
+        Terminal.printLine("Added new escape network with identifier " + identifier + ".");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addSections(EscapeNetworkSystem env, Arguments arguments, String sectionsString)
+            throws SemanticException {
+        String identifier = arguments.get("identifier", String.class);
+        Map<Edge, Integer> sections = arguments.get("sections", Map.class);
+        Network network = env.findNetwork(identifier).orElseThrow();
+        Network updated = Checks.wrapIllegalArgumentException(
+            () -> network.update(sections),
+            (e) -> new SemanticException(e.getMessage(), e)
+        );
+        log(env, identifier, sectionsString);
+        env.registerNetwork(identifier, updated);
+        compactLog(env);
+        if (sections.size() == 1) {
+            Map.Entry<Edge, Integer> section = sections.entrySet().iterator().next();
+            Terminal.printLine("Added new section "
+                    + Display.stringify(EscapeSection.of(section.getKey(), section.getValue()))
                     + " to escape network " + identifier + ".");
         } else {
-            Checks.validate(changes.getGraph().getEdges().size() > 1,
-                () -> new SemanticException("networks must consist of more than one edge"));
-            env.registerNetwork(identifier, changes);
-            Terminal.printLine("Added new escape network with identifier " + identifier + ".");
+            Terminal.printLine("Added " + sections.size() + " new sections to escape network " + identifier + ".");
+        }
+    }
+
+    private static void log(EscapeNetworkSystem env, String identifier, String sections) throws SemanticException {
+        Optional<MutationLog> log = env.getMutationLog();
+        if (log.isPresent()) {
+            try {
+                log.get().append(identifier, sections);
+            } catch (IOException e) {
+                throw new SemanticException("could not log addition: " + e.getMessage(), e);
+            }
         }
+    }
 
+    private static void compactLog(EscapeNetworkSystem env) throws SemanticException {
+        Optional<MutationLog> log = env.getMutationLog();
+        if (log.isPresent()) {
+            try {
+                log.get().compactIfNecessary();
+            } catch (IOException e) {
+                throw new SemanticException("addition was logged, but compacting the log failed: "
+                        + e.getMessage(), e);
+            }
+        }
     }
 }
@@ -0,0 +1,31 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+
+/**
+ * Command to print the flow cache statistics of a registered network.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see EscapeNetworkSystem#getCacheStatistics(String)
+ */
+public class CacheCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("network", Mapping.NETWORK_ID_STAGE.thenValidate(Mapping.REGISTERED_NETWORK_ID_CONSTRAINT))
+            .build();
+
+    @Override
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args) throws ParsingException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        Terminal.printLine(env.getCacheStatistics(arguments.get("network", String.class)));
+    }
+}
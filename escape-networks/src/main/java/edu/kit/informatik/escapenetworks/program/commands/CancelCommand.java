@@ -0,0 +1,37 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.FlowJobs;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+
+/**
+ * Command to cancel a flow job started with {@link SubmitCommand}.
+ * <p>
+ * A job that has already finished is not cancelled; its result can still be obtained with {@link PollCommand}.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see FlowJobs#cancel(int)
+ */
+public class CancelCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("job", Mapping.FLOW_JOB_ID_STAGE)
+            .build();
+
+    @Override
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args) throws ParsingException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        int job = arguments.get("job", Integer.class);
+        Terminal.printLine(env.getFlowJobs().cancel(job)
+                ? "Cancelled flow job " + job + "."
+                : "Flow job " + job + " has already finished.");
+    }
+}
@@ -0,0 +1,59 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.network.Edge;
+import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.program.Display;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.EscapeSection;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+import edu.kit.informatik.util.Checks;
+
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Command to print the escape sections of a minimum cut in a registered network,
+ * i.e. the sections that limit the maximum flow from a source to a sink.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public class CutCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("network", Mapping.NETWORK_ID_STAGE.thenValidate(Mapping.REGISTERED_NETWORK_ID_CONSTRAINT))
+            .param("source", Mapping.VERTEX_MAPPER)
+            .param("sink", Mapping.VERTEX_MAPPER)
+            .build();
+
+    @Override
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        String networkId = arguments.get("network", String.class);
+        Vertex source = arguments.get("source", Vertex.class);
+        Vertex sink = arguments.get("sink", Vertex.class);
+        Set<Edge> cut = Checks.wrapIllegalArgumentException(
+            () -> env.computeMinimumCut(networkId, source, sink),
+            (e) -> new SemanticException(e.getMessage()));
+        Network network = env.getRegisteredNetworks().get(networkId);
+        Terminal.printLine(cut.isEmpty()
+                ? "EMPTY"
+                : cut.stream()
+                .sorted(Comparator.<Edge, String>comparing((edge) -> edge.getFrom().getIdentifier())
+                        .thenComparing((edge) -> edge.getTo().getIdentifier()))
+                .map((edge) -> EscapeSection.of(edge, network.getCapacity(edge)))
+                .map(Display::stringify)
+                .collect(Collectors.joining("\n")));
+    }
+}
@@ -4,6 +4,7 @@ import edu.kit.informatik.Terminal;
 import edu.kit.informatik.cli.Command;
 import edu.kit.informatik.cli.SemanticException;
 import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.network.MaxFlowSolver;
 import edu.kit.informatik.escapenetworks.network.Vertex;
 import edu.kit.informatik.parser.ArgumentParser;
 import edu.kit.informatik.parser.Arguments;
@@ -12,8 +13,16 @@ import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
 import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
 import edu.kit.informatik.util.Checks;
 
+import java.util.Set;
+
 /**
  * Command to calculate the maximum possible flow in a registered network.
+ * <p>
+ * The source and the sink may also be lists of vertices separated by {@code ,}, in which case the flow
+ * from all of the sources to all of the sinks is computed at once.
+ * <p>
+ * For a single source and sink, an optional fourth argument names the solver to use. If given, the flow is computed
+ * with that solver even if it is already cached, which is useful to compare the solvers.
  *
  * @author JohnnyJayJay
  * @version 1.0.0
@@ -21,21 +30,40 @@ import edu.kit.informatik.util.Checks;
 public class FlowCommand implements Command<EscapeNetworkSystem> {
 
     private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("network", Mapping.NETWORK_ID_STAGE.thenValidate(Mapping.REGISTERED_NETWORK_ID_CONSTRAINT))
+            .param("sources", Mapping.VERTICES_MAPPER)
+            .param("sinks", Mapping.VERTICES_MAPPER)
+            .build();
+
+    private static final ArgumentParser<EscapeNetworkSystem> SOLVER_PARSER
+            = ArgumentParser.<EscapeNetworkSystem>builder()
             .param("network", Mapping.NETWORK_ID_STAGE.thenValidate(Mapping.REGISTERED_NETWORK_ID_CONSTRAINT))
             .param("source", Mapping.VERTEX_MAPPER)
             .param("sink", Mapping.VERTEX_MAPPER)
+            .param("solver", Mapping.SOLVER_STAGE)
             .build();
 
     @Override
+    @SuppressWarnings("unchecked")
     public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
             throws ParsingException, SemanticException {
         EscapeNetworkSystem env = session.getEnvironment();
-        Arguments arguments = PARSER.parse(env, args);
+        boolean solverGiven = args.length == 4;
+        Arguments arguments = (solverGiven ? SOLVER_PARSER : PARSER).parse(env, args);
         String network = arguments.get("network", String.class);
+        if (!solverGiven) {
+            Set<Vertex> sources = arguments.get("sources", Set.class);
+            Set<Vertex> sinks = arguments.get("sinks", Set.class);
+            Terminal.printLine(Checks.wrapIllegalArgumentException(
+                () -> env.computeMaxFlow(network, sources, sinks),
+                (e) -> new SemanticException(e.getMessage())));
+            return;
+        }
         Vertex source = arguments.get("source", Vertex.class);
         Vertex sink = arguments.get("sink", Vertex.class);
+        MaxFlowSolver solver = arguments.get("solver", MaxFlowSolver.class);
         Terminal.printLine(Checks.wrapIllegalArgumentException(
-            () -> env.computeMaxFlow(network, source, sink),
+            () -> env.computeMaxFlow(network, source, sink, solver),
             (e) -> new SemanticException(e.getMessage())));
     }
 }
@@ -0,0 +1,53 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+import edu.kit.informatik.util.Checks;
+import edu.kit.informatik.util.Pair;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Command to calculate the maximum flows between multiple pairs of source and sink in a registered network at once.
+ * <p>
+ * The flows that are not cached yet are computed in parallel. The results are printed in the order of the queries,
+ * one line per distinct query in the format {@code <flow> <source> <sink>}.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see EscapeNetworkSystem#computeMaxFlows(String, List)
+ */
+public class FlowsCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("network", Mapping.NETWORK_ID_STAGE.thenValidate(Mapping.REGISTERED_NETWORK_ID_CONSTRAINT))
+            .param("queries", Mapping.FLOW_QUERY_MAPPER)
+            .build();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        String network = arguments.get("network", String.class);
+        List<Pair<Vertex, Vertex>> queries = arguments.get("queries", List.class);
+        Map<Pair<Vertex, Vertex>, Long> flows = Checks.wrapIllegalArgumentException(
+            () -> env.computeMaxFlows(network, queries),
+            (e) -> new SemanticException(e.getMessage()));
+        Terminal.printLine(flows.entrySet().stream()
+                .map((entry) -> String.format("%d %s %s", entry.getValue(),
+                        entry.getKey().getLeft(), entry.getKey().getRight()))
+                .collect(Collectors.joining("\n")));
+    }
+}
@@ -0,0 +1,80 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.MutationLog;
+import edu.kit.informatik.escapenetworks.program.mapping.EscapeNetworkReader;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.map.MappingException;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+import edu.kit.informatik.util.Checks;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Command to import new networks from a file.
+ * <p>
+ * The file contains one network per line in the notation of the {@code add} command, e.g. {@code A s5a;a3t};
+ * long networks may continue on the next line after a {@code ;}. The whole file is read and validated first and
+ * the networks are registered in a single step, so a faulty file does not change the system.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see EscapeNetworkReader#readNetworks()
+ */
+public class ImportCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("file", Mapping.PATH_STAGE)
+            .build();
+
+    @Override
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        Path file = arguments.get("file", Path.class);
+        Map<String, Network> networks = read(file, env);
+        for (Map.Entry<String, Network> entry : networks.entrySet()) {
+            Checks.validate(env.findNetwork(entry.getKey()).isEmpty(),
+                () -> new SemanticException("escape network " + entry.getKey() + " already exists"));
+            Checks.validate(entry.getValue().getGraph().getEdges().size() >= EscapeNetworkSystem.MIN_SECTIONS,
+                () -> new SemanticException("networks must consist of more than one edge: " + entry.getKey()));
+        }
+        env.registerNetworks(networks);
+        Optional<MutationLog> log = env.getMutationLog();
+        if (log.isPresent()) {
+            try {
+                // imported networks do not go through the log, so they are persisted in the log's snapshot instead
+                log.get().compact();
+            } catch (IOException e) {
+                throw new SemanticException("networks were imported, but could not be persisted: "
+                        + e.getMessage(), e);
+            }
+        }
+        Terminal.printLine("Imported " + networks.size() + " escape networks from " + file + ".");
+    }
+
+    private static Map<String, Network> read(Path file, EscapeNetworkSystem env) throws SemanticException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            EscapeNetworkReader reader = EscapeNetworkReader.of(channel, env.getVertexTable());
+            try {
+                return reader.readNetworks();
+            } catch (MappingException e) {
+                throw new SemanticException("line " + reader.getLine() + " of " + file + ": " + e.getMessage(), e);
+            }
+        } catch (IOException e) {
+            throw new SemanticException("could not import " + file + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.MutationLog;
+import edu.kit.informatik.escapenetworks.program.Snapshot;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Command to load the networks and cached flows of a snapshot file into the system.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see Snapshot#read(Path, EscapeNetworkSystem)
+ */
+public class LoadCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("file", Mapping.PATH_STAGE)
+            .build();
+
+    @Override
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        Path file = arguments.get("file", Path.class);
+        int count;
+        try {
+            count = Snapshot.read(file, env);
+            Optional<MutationLog> log = env.getMutationLog();
+            if (log.isPresent()) {
+                // loaded networks do not go through the log, so they are persisted in the log's snapshot instead
+                log.get().compact();
+            }
+        } catch (IOException e) {
+            throw new SemanticException("could not load " + file + ": " + e.getMessage(), e);
+        }
+        Terminal.printLine("Loaded " + count + " escape networks from " + file + ".");
+    }
+}
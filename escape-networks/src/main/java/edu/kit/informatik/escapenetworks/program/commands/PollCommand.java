@@ -0,0 +1,49 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.FlowJobs;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+import edu.kit.informatik.util.Checks;
+
+import java.util.OptionalLong;
+
+/**
+ * Command to print the result of a flow job started with {@link SubmitCommand} if it has finished,
+ * without waiting for it.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see FlowJobs#poll(int)
+ */
+public class PollCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("job", Mapping.FLOW_JOB_ID_STAGE)
+            .build();
+
+    @Override
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        int job = arguments.get("job", Integer.class);
+        OptionalLong flow;
+        try {
+            flow = Checks.wrapIllegalArgumentException(
+                () -> env.getFlowJobs().poll(job),
+                (e) -> new SemanticException(e.getMessage()));
+        } catch (IllegalStateException e) {
+            throw new SemanticException(e.getMessage());
+        }
+        Terminal.printLine(flow.isPresent()
+                ? String.valueOf(flow.getAsLong())
+                : "Flow job " + job + " is still running.");
+    }
+}
@@ -0,0 +1,62 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.network.FlowPath;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.program.Display;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+import edu.kit.informatik.util.Checks;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Command to print the evacuation routes of the maximum flow in a registered network, i.e. the paths the flow
+ * takes from the sources to the sinks and the amount of flow on each of them.
+ * <p>
+ * Like in {@link FlowCommand}, the source and the sink may be lists of vertices separated by {@code ,}.
+ * The routes are printed one per line in the format {@code <amount> <vertex> <vertex> ...},
+ * starting with the route that carries the most flow.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see EscapeNetworkSystem#computeEvacuationRoutes(String, Set, Set)
+ */
+public class RoutesCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("network", Mapping.NETWORK_ID_STAGE.thenValidate(Mapping.REGISTERED_NETWORK_ID_CONSTRAINT))
+            .param("sources", Mapping.VERTICES_MAPPER)
+            .param("sinks", Mapping.VERTICES_MAPPER)
+            .build();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        String network = arguments.get("network", String.class);
+        Set<Vertex> sources = arguments.get("sources", Set.class);
+        Set<Vertex> sinks = arguments.get("sinks", Set.class);
+        List<FlowPath> routes = Checks.wrapIllegalArgumentException(
+            () -> env.computeEvacuationRoutes(network, sources, sinks),
+            (e) -> new SemanticException(e.getMessage()));
+        Terminal.printLine(routes.isEmpty()
+                ? "EMPTY"
+                : routes.stream()
+                .sorted(Comparator.comparingInt(FlowPath::getAmount).reversed()
+                        .thenComparing(Display::stringify))
+                .map(Display::stringify)
+                .collect(Collectors.joining("\n")));
+    }
+}
@@ -0,0 +1,44 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.Snapshot;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Command to save the registered networks and cached flows of the system to a snapshot file.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see Snapshot#write(EscapeNetworkSystem, Path)
+ */
+public class SaveCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("file", Mapping.PATH_STAGE)
+            .build();
+
+    @Override
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        Path file = arguments.get("file", Path.class);
+        int count;
+        try {
+            count = Snapshot.write(env, file);
+        } catch (IOException e) {
+            throw new SemanticException("could not save " + file + ": " + e.getMessage(), e);
+        }
+        Terminal.printLine("Saved " + count + " escape networks to " + file + ".");
+    }
+}
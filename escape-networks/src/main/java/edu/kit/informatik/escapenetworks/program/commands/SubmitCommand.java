@@ -0,0 +1,51 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.FlowJob;
+import edu.kit.informatik.escapenetworks.program.FlowJobs;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+import edu.kit.informatik.util.Checks;
+
+import java.util.Set;
+
+/**
+ * Command to start calculating the maximum possible flow in a registered network in the background.
+ * <p>
+ * Takes the same network, sources and sinks as {@link FlowCommand}, but returns right away and prints the id
+ * of the job that computes the flow. The result is obtained with {@link PollCommand} or {@link WaitCommand}.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see FlowJobs#submit(String, Set, Set)
+ */
+public class SubmitCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("network", Mapping.NETWORK_ID_STAGE.thenValidate(Mapping.REGISTERED_NETWORK_ID_CONSTRAINT))
+            .param("sources", Mapping.VERTICES_MAPPER)
+            .param("sinks", Mapping.VERTICES_MAPPER)
+            .build();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        String network = arguments.get("network", String.class);
+        Set<Vertex> sources = arguments.get("sources", Set.class);
+        Set<Vertex> sinks = arguments.get("sinks", Set.class);
+        FlowJob job = Checks.wrapIllegalArgumentException(
+            () -> env.getFlowJobs().submit(network, sources, sinks),
+            (e) -> new SemanticException(e.getMessage()));
+        Terminal.printLine("Submitted flow job " + job.getId() + ".");
+    }
+}
@@ -0,0 +1,53 @@
+package edu.kit.informatik.escapenetworks.program.commands;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.cli.Command;
+import edu.kit.informatik.cli.SemanticException;
+import edu.kit.informatik.cli.TerminalSession;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.FlowJobs;
+import edu.kit.informatik.escapenetworks.program.mapping.Mapping;
+import edu.kit.informatik.parser.ArgumentParser;
+import edu.kit.informatik.parser.Arguments;
+import edu.kit.informatik.parser.ParsingException;
+import edu.kit.informatik.util.Checks;
+
+import java.util.OptionalLong;
+
+/**
+ * Command to wait for a flow job started with {@link SubmitCommand} and print its result.
+ * <p>
+ * The second argument is the maximum time to wait in milliseconds. If the flow has not been computed by then,
+ * the job is cancelled.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see FlowJobs#await(int, long)
+ */
+public class WaitCommand implements Command<EscapeNetworkSystem> {
+
+    private static final ArgumentParser<EscapeNetworkSystem> PARSER = ArgumentParser.<EscapeNetworkSystem>builder()
+            .param("job", Mapping.FLOW_JOB_ID_STAGE)
+            .param("timeout", Mapping.INTEGER_MAPPER.thenValidate((env, timeout) -> timeout >= 0,
+                (timeout) -> "invalid timeout " + timeout + "; timeouts must be non-negative"))
+            .build();
+
+    @Override
+    public void execute(TerminalSession<EscapeNetworkSystem> session, String[] args)
+            throws ParsingException, SemanticException {
+        EscapeNetworkSystem env = session.getEnvironment();
+        Arguments arguments = PARSER.parse(env, args);
+        int job = arguments.get("job", Integer.class);
+        OptionalLong flow;
+        try {
+            flow = Checks.wrapIllegalArgumentException(
+                () -> env.getFlowJobs().await(job, arguments.get("timeout", Integer.class)),
+                (e) -> new SemanticException(e.getMessage()));
+        } catch (IllegalStateException e) {
+            throw new SemanticException(e.getMessage());
+        }
+        Terminal.printLine(flow.isPresent()
+                ? String.valueOf(flow.getAsLong())
+                : "Flow job " + job + " timed out and was cancelled.");
+    }
+}
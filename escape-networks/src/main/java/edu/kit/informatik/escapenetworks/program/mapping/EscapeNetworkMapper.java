@@ -1,19 +1,13 @@
 package edu.kit.informatik.escapenetworks.program.mapping;
 
 import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
-import edu.kit.informatik.escapenetworks.program.EscapeSection;
-import edu.kit.informatik.escapenetworks.network.Edge;
-import edu.kit.informatik.escapenetworks.network.Graph;
 import edu.kit.informatik.escapenetworks.network.Network;
-import edu.kit.informatik.escapenetworks.network.Vertex;
 import edu.kit.informatik.map.MappingException;
 import edu.kit.informatik.map.MappingStage;
 import edu.kit.informatik.util.Checks;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.io.IOException;
+import java.io.StringReader;
 
 /**
  * A {@link MappingStage} implementation that parses string-encoded escape networks
@@ -21,6 +15,7 @@ import java.util.Set;
  *
  * @author JohnnyJayJay
  * @version 1.0.0
+ * @see EscapeNetworkReader
  */
 public class EscapeNetworkMapper implements MappingStage<EscapeNetworkSystem, String, Network> {
 
@@ -31,21 +26,10 @@ public class EscapeNetworkMapper implements MappingStage<EscapeNetworkSystem, St
             throws MappingException {
         Checks.validate(!(input.startsWith(EDGE_DELIMITER) || input.endsWith(EDGE_DELIMITER)),
             () -> new MappingException("malformed input"));
-        String[] sections = input.split(EDGE_DELIMITER);
-        Set<Vertex> vertices = new HashSet<>();
-        Map<Edge, Integer> capacities = new HashMap<>(sections.length);
-        for (String sectionString : sections) {
-            EscapeSection section = Mapping.SECTION_MAPPER.apply(environment, sectionString);
-            Edge edge = section.getEdge();
-            vertices.add(edge.getFrom());
-            vertices.add(edge.getTo());
-            Checks.validate(!capacities.containsKey(edge), () -> new MappingException("duplicate edge " + edge));
-            capacities.put(edge, section.getCapacity());
+        try {
+            return EscapeNetworkReader.of(new StringReader(input), environment.getVertexTable()).readNetwork();
+        } catch (IOException e) {
+            throw new MappingException(e.getMessage(), e);
         }
-        Graph graph = Graph.create(vertices, capacities.keySet());
-        return Checks.wrapIllegalArgumentException(
-            () -> Network.create(graph, capacities),
-            (e) -> new MappingException(e.getMessage())
-        );
     }
 }
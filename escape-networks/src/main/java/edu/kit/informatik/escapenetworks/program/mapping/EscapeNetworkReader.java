@@ -0,0 +1,326 @@
+package edu.kit.informatik.escapenetworks.program.mapping;
+
+import edu.kit.informatik.escapenetworks.network.Edge;
+import edu.kit.informatik.escapenetworks.network.Network;
+import edu.kit.informatik.escapenetworks.network.NetworkBuilder;
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.network.VertexTable;
+import edu.kit.informatik.map.MappingException;
+import edu.kit.informatik.util.Checks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * A single-pass reader for string-encoded escape networks, i.e. escape sections like {@code s5a} separated by
+ * {@code ;}, that builds a {@link Network} directly while reading.
+ * <p>
+ * Sections are recognised character by character without regular expressions or splitting the input.
+ * Every section is added to a {@link NetworkBuilder} right away and vertices are interned in a {@link VertexTable},
+ * so apart from the network itself, only the current section is kept in memory.
+ * This makes it possible to read network definitions of several megabytes from a file or channel.
+ * <p>
+ * Line breaks and blanks may follow a {@code ;}, so long networks can be split over multiple lines.
+ * A single input can either contain {@link #readNetwork() one network} or
+ * {@link #readNetworks() multiple networks with identifiers}.
+ * Errors are reported with the same messages as {@link EscapeSectionMapper} and {@link EscapeNetworkMapper};
+ * {@link #getLine()} tells the line the error occurred in.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public final class EscapeNetworkReader {
+
+    private static final int MAX_VERTEX_LENGTH = 6;
+    private static final int MAX_NETWORK_LENGTH = 6;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int END = -1;
+    private static final char EDGE_DELIMITER = ';';
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final StringBuilder section;
+    private final VertexTable vertices;
+    private int position;
+    private int limit;
+    private int line;
+
+    private EscapeNetworkReader(Reader reader, VertexTable vertices) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.section = new StringBuilder();
+        this.vertices = vertices;
+        this.line = 1;
+    }
+
+    /**
+     * Creates a reader that reads from the given character stream and interns vertices in a table of its own.
+     * <p>
+     * The stream is not buffered any further; it is not closed by this reader.
+     *
+     * @param reader The stream to read from.
+     * @return The network reader.
+     * @throws NullPointerException if the stream is {@code null}.
+     */
+    public static EscapeNetworkReader of(Reader reader) {
+        return of(reader, VertexTable.create());
+    }
+
+    /**
+     * Creates a reader that reads from the given character stream and interns vertices in the given table.
+     * <p>
+     * The stream is not buffered any further; it is not closed by this reader.
+     *
+     * @param reader   The stream to read from.
+     * @param vertices The table to intern vertices in.
+     * @return The network reader.
+     * @throws NullPointerException if one of the arguments is {@code null}.
+     */
+    public static EscapeNetworkReader of(Reader reader, VertexTable vertices) {
+        Checks.notNull(reader, "Reader");
+        Checks.notNull(vertices, "Vertex table");
+        return new EscapeNetworkReader(reader, vertices);
+    }
+
+    /**
+     * Creates a reader that reads ASCII-encoded networks from the given channel and interns vertices in a table
+     * of its own.
+     *
+     * @param channel The channel to read from.
+     * @return The network reader.
+     * @throws NullPointerException if the channel is {@code null}.
+     */
+    public static EscapeNetworkReader of(ReadableByteChannel channel) {
+        return of(channel, VertexTable.create());
+    }
+
+    /**
+     * Creates a reader that reads ASCII-encoded networks from the given channel and interns vertices in the given
+     * table.
+     *
+     * @param channel  The channel to read from.
+     * @param vertices The table to intern vertices in.
+     * @return The network reader.
+     * @throws NullPointerException if one of the arguments is {@code null}.
+     */
+    public static EscapeNetworkReader of(ReadableByteChannel channel, VertexTable vertices) {
+        Checks.notNull(channel, "Channel");
+        return of(Channels.newReader(channel, StandardCharsets.US_ASCII.newDecoder(), -1), vertices);
+    }
+
+    /**
+     * Reads a complete network: a list of sections that extends to the end of the input.
+     *
+     * @return The network.
+     * @throws IOException      if reading from the underlying stream fails.
+     * @throws MappingException if the input is not a valid escape network.
+     */
+    public Network readNetwork() throws IOException, MappingException {
+        NetworkBuilder builder = NetworkBuilder.create();
+        readSections(builder);
+        skipWhitespace();
+        Checks.validate(peek() == END, () -> new MappingException("malformed input"));
+        return build(builder);
+    }
+
+    /**
+     * Reads any number of named networks until the end of the input.
+     * <p>
+     * Every network starts on a new line with its identifier, followed by a blank and its sections, e.g.
+     * {@code A s5a;a3t}. Empty lines are ignored.
+     *
+     * @return The networks by identifier, in the order they were read.
+     * @throws IOException      if reading from the underlying stream fails.
+     * @throws MappingException if the input is malformed, an identifier occurs twice or a network is invalid.
+     */
+    public Map<String, Network> readNetworks() throws IOException, MappingException {
+        Map<String, Network> networks = new LinkedHashMap<>();
+        skipWhitespace();
+        while (peek() != END) {
+            String networkId = readNetworkId();
+            Checks.validate(!networks.containsKey(networkId),
+                () -> new MappingException("duplicate escape network " + networkId));
+            NetworkBuilder builder = NetworkBuilder.create();
+            readSections(builder);
+            Checks.validate(peek() == '\n' || peek() == END, () -> new MappingException("malformed input"));
+            networks.put(networkId, build(builder));
+            skipWhitespace();
+        }
+        return networks;
+    }
+
+    private String readNetworkId() throws IOException, MappingException {
+        StringBuilder networkId = new StringBuilder();
+        while (peek() >= 'A' && peek() <= 'Z') {
+            networkId.append((char) next());
+        }
+        Checks.validate(networkId.length() > 0 && networkId.length() <= MAX_NETWORK_LENGTH
+                        && (peek() == ' ' || peek() == '\t'),
+            () -> new MappingException("illegal escape network name " + networkId));
+        skipBlanks();
+        return networkId.toString();
+    }
+
+    /**
+     * Reads a list of sections separated by {@code ;} into the given builder.
+     * <p>
+     * The list ends at the first character after a section that is not a blank or {@code ;},
+     * e.g. a line break or the end of the input. That character is not consumed.
+     *
+     * @param builder The builder to add the sections to.
+     * @throws IOException      if reading from the underlying stream fails.
+     * @throws MappingException if a section is malformed or a duplicate.
+     */
+    public void readSections(NetworkBuilder builder) throws IOException, MappingException {
+        readSections(builder::add, builder::contains);
+    }
+
+    /**
+     * Reads a list of sections separated by {@code ;} that extends to the end of the input, without requiring
+     * the sections to form a valid network on their own.
+     *
+     * @return The edges of the sections and their capacities, in the order they were read.
+     * @throws IOException      if reading from the underlying stream fails.
+     * @throws MappingException if a section is malformed or a duplicate.
+     */
+    public Map<Edge, Integer> readSectionMap() throws IOException, MappingException {
+        Map<Edge, Integer> sections = new LinkedHashMap<>();
+        readSections(sections::put, sections::containsKey);
+        skipWhitespace();
+        Checks.validate(peek() == END, () -> new MappingException("malformed input"));
+        return sections;
+    }
+
+    private void readSections(BiConsumer<Edge, Integer> consumer, Predicate<Edge> contains)
+            throws IOException, MappingException {
+        Checks.validate(peek() != EDGE_DELIMITER, () -> new MappingException("malformed input"));
+        while (true) {
+            readSection(consumer, contains);
+            skipBlanks();
+            if (peek() != EDGE_DELIMITER) {
+                return;
+            }
+            next();
+            skipWhitespace();
+            Checks.validate(peek() != END, () -> new MappingException("malformed input"));
+        }
+    }
+
+    /**
+     * Validates and builds the network collected by the given builder.
+     *
+     * @param builder The builder.
+     * @return The network.
+     * @throws MappingException if the network is invalid, e.g. because it does not contain a source.
+     */
+    public static Network build(NetworkBuilder builder) throws MappingException {
+        return Checks.wrapIllegalArgumentException(builder::build, (e) -> new MappingException(e.getMessage()));
+    }
+
+    private void readSection(BiConsumer<Edge, Integer> consumer, Predicate<Edge> contains)
+            throws IOException, MappingException {
+        section.setLength(0);
+        for (int c = peek(); c != END && c != EDGE_DELIMITER && !Character.isWhitespace(c); c = peek()) {
+            section.append((char) next());
+        }
+        int fromEnd = skipLetters(0);
+        int capacityEnd = skipDigits(fromEnd);
+        int toEnd = skipLetters(capacityEnd);
+        Checks.validate(fromEnd > 0 && capacityEnd > fromEnd && toEnd > capacityEnd && toEnd == section.length()
+                        && fromEnd <= MAX_VERTEX_LENGTH && toEnd - capacityEnd <= MAX_VERTEX_LENGTH,
+            () -> new MappingException("Edge '" + section + "' does not conform to edge pattern"));
+        int capacity = parseCapacity(fromEnd, capacityEnd);
+        Vertex from = vertex(0, fromEnd);
+        Vertex to = vertex(capacityEnd, toEnd);
+        Checks.validate(!from.equals(to),
+            () -> new MappingException("escape section must not be a loop: " + from));
+        Edge edge = Edge.create(from, to);
+        Checks.validate(!contains.test(edge), () -> new MappingException("duplicate edge " + edge));
+        consumer.accept(edge, capacity);
+    }
+
+    private int skipLetters(int start) {
+        int end = start;
+        while (end < section.length() && section.charAt(end) >= 'a' && section.charAt(end) <= 'z') {
+            end++;
+        }
+        return end;
+    }
+
+    private int skipDigits(int start) {
+        int end = start;
+        while (end < section.length() && section.charAt(end) >= '0' && section.charAt(end) <= '9') {
+            end++;
+        }
+        return end;
+    }
+
+    private int parseCapacity(int start, int end) throws MappingException {
+        long capacity = 0;
+        for (int i = start; i < end; i++) {
+            capacity = capacity * 10 + (section.charAt(i) - '0');
+            if (capacity > Integer.MAX_VALUE) {
+                throw new MappingException(section.substring(start, end) + " is not a number");
+            }
+        }
+        if (capacity <= 0) {
+            throw new MappingException("invalid capacity " + capacity + "; capacities must be non-negative");
+        }
+        return (int) capacity;
+    }
+
+    private Vertex vertex(int start, int end) {
+        return vertices.intern(section.substring(start, end));
+    }
+
+    private void skipBlanks() throws IOException {
+        while (peek() == ' ' || peek() == '\t' || peek() == '\r') {
+            next();
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (peek() != END && Character.isWhitespace(peek())) {
+            next();
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return END;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c != END) {
+            position++;
+            if (c == '\n') {
+                line++;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Returns the number of the line the reader is currently in, starting at {@code 1}.
+     *
+     * @return The current line number.
+     */
+    public int getLine() {
+        return line;
+    }
+}
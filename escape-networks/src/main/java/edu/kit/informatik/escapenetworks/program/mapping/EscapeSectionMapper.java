@@ -36,8 +36,8 @@ public class EscapeSectionMapper implements MappingStage<EscapeNetworkSystem, St
                 .thenValidate((env, cap) -> cap > 0,
                     (cap) -> "invalid capacity " + cap + "; capacities must be non-negative")
                 .apply(environment, capacityString);
-        Vertex from = Mapping.VERTEX_MAPPER.apply(environment, fromVertexId);
-        Vertex to = Mapping.VERTEX_MAPPER.apply(environment, toVertexId);
+        Vertex from = Mapping.INTERNING_VERTEX_MAPPER.apply(environment, fromVertexId);
+        Vertex to = Mapping.INTERNING_VERTEX_MAPPER.apply(environment, toVertexId);
         Edge edge = Edge.create(from, to);
         Checks.validate(!edge.isLoop(),
             () -> new MappingException("escape section must not be a loop: " + from));
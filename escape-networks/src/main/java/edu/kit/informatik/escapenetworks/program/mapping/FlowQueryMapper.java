@@ -0,0 +1,44 @@
+package edu.kit.informatik.escapenetworks.program.mapping;
+
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.map.MappingException;
+import edu.kit.informatik.map.MappingStage;
+import edu.kit.informatik.util.Checks;
+import edu.kit.informatik.util.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link MappingStage} implementation that parses a string-encoded list of flow queries
+ * to a list of source/sink {@link Pair pairs} or throws a {@link MappingException} if conversion fails.
+ * <p>
+ * The queries are separated by {@code ;}, the source and sink of a query by {@code ,}, e.g. {@code a,b;c,d}.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public class FlowQueryMapper implements MappingStage<EscapeNetworkSystem, String, List<Pair<Vertex, Vertex>>> {
+
+    private static final String QUERY_DELIMITER = ";";
+    private static final String VERTEX_DELIMITER = ",";
+
+    @Override
+    public List<Pair<Vertex, Vertex>> apply(EscapeNetworkSystem environment, String input)
+            throws MappingException {
+        Checks.validate(!(input.startsWith(QUERY_DELIMITER) || input.endsWith(QUERY_DELIMITER)),
+            () -> new MappingException("malformed input"));
+        String[] queryStrings = input.split(QUERY_DELIMITER);
+        List<Pair<Vertex, Vertex>> queries = new ArrayList<>(queryStrings.length);
+        for (String queryString : queryStrings) {
+            String[] vertices = queryString.split(VERTEX_DELIMITER, -1);
+            Checks.validate(vertices.length == 2,
+                () -> new MappingException(queryString + " is not a source and a sink separated by "
+                        + VERTEX_DELIMITER));
+            queries.add(Pair.of(Mapping.VERTEX_MAPPER.apply(environment, vertices[0]),
+                    Mapping.VERTEX_MAPPER.apply(environment, vertices[1])));
+        }
+        return List.copyOf(queries);
+    }
+}
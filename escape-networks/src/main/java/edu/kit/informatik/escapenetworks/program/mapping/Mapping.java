@@ -1,10 +1,15 @@
 package edu.kit.informatik.escapenetworks.program.mapping;
 
 import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.escapenetworks.program.FlowJob;
+import edu.kit.informatik.escapenetworks.network.MaxFlowSolver;
 import edu.kit.informatik.escapenetworks.network.Network;
 import edu.kit.informatik.map.MappingConstraint;
 import edu.kit.informatik.map.MappingException;
 import edu.kit.informatik.map.MappingStage;
+import edu.kit.informatik.util.Checks;
+
+import java.nio.file.Path;
 
 /**
  * A utility class that contains a few useful {@link MappingStage} and {@link MappingConstraint}
@@ -51,26 +56,72 @@ public final class Mapping {
             .thenApply((env, arg) -> env.findNetwork(arg)
                     .orElseThrow(() -> new MappingException("network " + arg + " does not exist")));
 
+    /**
+     * A {@code MappingStage} that maps a solver name to the {@link MaxFlowSolver} registered for it in
+     * the environment or fails if there is no such solver.
+     */
+    public static final MappingStage<EscapeNetworkSystem, String, MaxFlowSolver> SOLVER_STAGE
+            = (env, arg) -> env.getSolverRegistry().find(arg)
+                    .orElseThrow(() -> new MappingException("unknown solver " + arg));
+
+    /**
+     * A {@code MappingStage} that maps a string to a file system {@link Path}
+     * or fails if the string is not a valid path.
+     */
+    public static final MappingStage<EscapeNetworkSystem, String, Path> PATH_STAGE
+            = (env, arg) -> Checks.wrapIllegalArgumentException(
+                () -> Path.of(arg),
+                (e) -> new MappingException(arg + " is not a valid path"));
+
     /**
      * An instance of {@link EscapeNetworkMapper}.
      */
     public static final EscapeNetworkMapper NETWORK_MAPPER = new EscapeNetworkMapper();
 
     /**
-     * An instance of {@link VertexMapper}.
+     * An instance of {@link VertexMapper} that only looks vertices up, for use in queries.
+     */
+    public static final VertexMapper VERTEX_MAPPER = new VertexMapper(false);
+
+    /**
+     * An instance of {@link VertexMapper} that interns vertices, for use in networks and sections.
+     */
+    public static final VertexMapper INTERNING_VERTEX_MAPPER = new VertexMapper(true);
+
+    /**
+     * An instance of {@link VerticesMapper}.
+     */
+    public static final VerticesMapper VERTICES_MAPPER = new VerticesMapper();
+
+    /**
+     * An instance of {@link SectionsMapper}.
      */
-    public static final VertexMapper VERTEX_MAPPER = new VertexMapper();
+    public static final SectionsMapper SECTIONS_MAPPER = new SectionsMapper();
 
     /**
      * An instance of {@link EscapeSectionMapper}.
      */
     public static final EscapeSectionMapper SECTION_MAPPER = new EscapeSectionMapper();
 
+    /**
+     * An instance of {@link FlowQueryMapper}.
+     */
+    public static final FlowQueryMapper FLOW_QUERY_MAPPER = new FlowQueryMapper();
+
     /**
      * An instance of {@link IntegerMapper} using the {@link EscapeNetworkSystem} environment.
      */
     public static final IntegerMapper<EscapeNetworkSystem> INTEGER_MAPPER = new IntegerMapper<>();
 
+    /**
+     * A {@code MappingStage} that maps a string to the id of a {@link FlowJob} in the environment
+     * or fails if there is no such job.
+     */
+    public static final MappingStage<EscapeNetworkSystem, String, Integer> FLOW_JOB_ID_STAGE
+            = INTEGER_MAPPER.thenValidate(
+                (env, id) -> env.getFlowJobs().find(id).isPresent(),
+                (id) -> "flow job " + id + " does not exist");
+
     private Mapping() {
 
     }
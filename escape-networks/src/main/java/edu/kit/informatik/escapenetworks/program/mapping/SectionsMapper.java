@@ -0,0 +1,38 @@
+package edu.kit.informatik.escapenetworks.program.mapping;
+
+import edu.kit.informatik.escapenetworks.network.Edge;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.map.MappingException;
+import edu.kit.informatik.map.MappingStage;
+import edu.kit.informatik.util.Checks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+/**
+ * A {@link MappingStage} implementation that parses a list of string-encoded escape sections separated by {@code ;}
+ * to a map from {@link Edge edges} to their capacities or throws a {@link MappingException} if conversion fails.
+ * <p>
+ * Unlike {@link EscapeNetworkMapper}, the sections do not have to form a valid network on their own,
+ * which makes this stage suitable for sections that are added to an existing network.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ * @see EscapeNetworkReader#readSectionMap()
+ */
+public class SectionsMapper implements MappingStage<EscapeNetworkSystem, String, Map<Edge, Integer>> {
+
+    private static final String EDGE_DELIMITER = ";";
+
+    @Override
+    public Map<Edge, Integer> apply(EscapeNetworkSystem environment, String input) throws MappingException {
+        Checks.validate(!(input.startsWith(EDGE_DELIMITER) || input.endsWith(EDGE_DELIMITER)),
+            () -> new MappingException("malformed input"));
+        try {
+            return EscapeNetworkReader.of(new StringReader(input), environment.getVertexTable()).readSectionMap();
+        } catch (IOException e) {
+            throw new MappingException(e.getMessage(), e);
+        }
+    }
+}
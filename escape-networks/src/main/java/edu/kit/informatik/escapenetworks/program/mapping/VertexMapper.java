@@ -2,6 +2,7 @@ package edu.kit.informatik.escapenetworks.program.mapping;
 
 import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
 import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.network.VertexTable;
 import edu.kit.informatik.map.MappingException;
 import edu.kit.informatik.map.MappingStage;
 import edu.kit.informatik.util.Checks;
@@ -9,17 +10,34 @@ import edu.kit.informatik.util.Checks;
 /**
  * A {@link MappingStage} implementation that parses string-encoded escape networks
  * to {@link Vertex} objects or throws a {@link MappingException} if conversion fails.
+ * <p>
+ * Vertices of networks that are built or updated are interned in the
+ * {@link EscapeNetworkSystem#getVertexTable() vertex table} of the system. Vertices that are only looked up,
+ * like the source and sink of a query, are not added to the table, so that unknown vertices do not fill it up.
  *
  * @author JohnnyJayJay
  * @version 1.0.0
+ * @see VertexTable
  */
 public class VertexMapper implements MappingStage<EscapeNetworkSystem, String, Vertex> {
 
+    private final boolean intern;
+
+    /**
+     * Creates a mapper that either interns the vertices or only looks them up.
+     *
+     * @param intern Whether vertices that are not in the vertex table yet should be added to it.
+     */
+    public VertexMapper(boolean intern) {
+        this.intern = intern;
+    }
+
     @Override
     public Vertex apply(EscapeNetworkSystem environment, String input) throws MappingException {
         Checks.validate(EscapeNetworkSystem.VERTEX_NAME_PATTERN.matcher(input).matches(),
             () -> new MappingException(input + " is not a legal vertex name")
         );
-        return Vertex.create(input);
+        VertexTable vertices = environment.getVertexTable();
+        return intern ? vertices.intern(input) : vertices.lookup(input);
     }
 }
@@ -0,0 +1,36 @@
+package edu.kit.informatik.escapenetworks.program.mapping;
+
+import edu.kit.informatik.escapenetworks.network.Vertex;
+import edu.kit.informatik.escapenetworks.program.EscapeNetworkSystem;
+import edu.kit.informatik.map.MappingException;
+import edu.kit.informatik.map.MappingStage;
+import edu.kit.informatik.util.Checks;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A {@link MappingStage} implementation that parses a string-encoded list of vertices
+ * to a set of {@link Vertex} objects or throws a {@link MappingException} if conversion fails.
+ * <p>
+ * The vertices are separated by {@code ,}, e.g. {@code a,b,c}. Every vertex is parsed like in {@link VertexMapper}
+ * and may only occur once.
+ *
+ * @author JohnnyJayJay
+ * @version 1.0.0
+ */
+public class VerticesMapper implements MappingStage<EscapeNetworkSystem, String, Set<Vertex>> {
+
+    private static final String VERTEX_DELIMITER = ",";
+
+    @Override
+    public Set<Vertex> apply(EscapeNetworkSystem environment, String input) throws MappingException {
+        Set<Vertex> vertices = new LinkedHashSet<>();
+        for (String vertexString : input.split(VERTEX_DELIMITER, -1)) {
+            Vertex vertex = Mapping.VERTEX_MAPPER.apply(environment, vertexString);
+            Checks.validate(vertices.add(vertex),
+                () -> new MappingException("vertex " + vertexString + " is given more than once"));
+        }
+        return Set.copyOf(vertices);
+    }
+}